@@ -0,0 +1,64 @@
+/**
+ * The outcome of approximately solving a multiple choice knapsack problem with scaled-down
+ * profits. The profit is that of an actual packing, which is at least {@code (1 - epsilon)}
+ * times the optimum; the upper bound is a profit no packing can exceed.
+ */
+public class ApproximateKnapsackResult {
+
+	/** Profit of the packing found, in terms of the original profits. */
+	private final int profit;
+	/** No packing has a profit larger than this. */
+	private final int upperBound;
+	/** The factor all profits were divided by before solving. */
+	private final double scalingFactor;
+	/** Number of rows of the table the scaled instance was solved with. */
+	private final int tableRows;
+
+	/**
+	 * Creates a new instance with the given data.
+	 */
+	ApproximateKnapsackResult(final int profit, final int upperBound, final double scalingFactor,
+			final int tableRows) {
+		this.profit = profit;
+		this.upperBound = Math.max(profit, upperBound);
+		this.scalingFactor = scalingFactor;
+		this.tableRows = tableRows;
+	}
+
+	/**
+	 * Returns the profit of the packing found. It is at least {@code (1 - epsilon)} times the
+	 * optimal profit.
+	 */
+	public int getProfit() {
+		return profit;
+	}
+
+	/**
+	 * Returns an upper bound on the optimal profit.
+	 */
+	public int getUpperBound() {
+		return upperBound;
+	}
+
+	/**
+	 * Returns the factor all profits were divided by (and rounded down) before solving, or
+	 * {@code 1} if the instance was solved exactly.
+	 */
+	public double getScalingFactor() {
+		return scalingFactor;
+	}
+
+	/**
+	 * Returns the number of rows of the table the scaled instance was solved with.
+	 */
+	public int getTableRows() {
+		return tableRows;
+	}
+
+	@Override
+	public String toString() {
+		return "profit " + profit + ", upper bound " + upperBound + ", scaled by " + scalingFactor
+				+ ", " + tableRows + " rows";
+	}
+
+}
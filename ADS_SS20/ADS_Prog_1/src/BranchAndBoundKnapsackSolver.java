@@ -0,0 +1,321 @@
+/**
+ * Solves the multiple choice knapsack problem by branch and bound instead of dynamic
+ * programming. Its running time does not depend on the size of the profits or the capacity,
+ * which makes it the engine of choice if both are too large for a table.
+ *
+ * <p>The search decides group after group which of its items (if any) to pack. Each search node
+ * is bounded by the linear relaxation of the remaining groups: on the upper convex hull of a
+ * group, going from one item to the next adds weight at a decreasing incremental efficiency
+ * (profit gained per weight added). The relaxation greedily takes the increments of all remaining
+ * groups in order of decreasing efficiency until the capacity is used up, the last one possibly
+ * in part. Taking only the increments that fit completely yields a feasible packing as well,
+ * which keeps the best known profit up to date.</p>
+ *
+ * <p>The search can be limited in the number of nodes it visits and in time. If it runs into a
+ * limit, it returns the best packing found so far along with an upper bound on the optimum.</p>
+ */
+public class BranchAndBoundKnapsackSolver {
+
+    /** Value for the limits meaning that the search is not limited. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    // Number of nodes between two looks at the clock.
+    private static final int CLOCK_INTERVAL = 1024;
+
+    // The knapsack's capacity.
+    private final int capacity;
+    // The undominated items of each group, sorted by weight (and thus by profit).
+    private final PackedItemGroups items;
+    // Number of groups.
+    private final int groupCount;
+    // The hull increments of all groups, sorted by decreasing efficiency: the group each belongs
+    // to, and the weight and profit it adds.
+    private int[] incrementGroups;
+    private int[] incrementWeights;
+    private int[] incrementProfits;
+    // Maximum number of nodes to visit.
+    private final long nodeLimit;
+    // Point in time (System.nanoTime) at which to stop searching.
+    private final long deadline;
+
+    // Number of nodes visited so far.
+    private long nodes = 0;
+    // Profit of the best packing found so far.
+    private long bestProfit = 0;
+    // Whether we ran into a limit.
+    private boolean aborted = false;
+    // After an abort, the largest bound of all nodes that were not explored.
+    private long openBound = 0;
+
+    /**
+     * Creates a new solver for the given (pruned) problem instance.
+     */
+    private BranchAndBoundKnapsackSolver(final ItemGroupPruner.Result pruned, final int capacity,
+            final long nodeLimit, final long deadline) {
+        this.capacity = capacity;
+        this.items = new PackedItemGroups(pruned.getItemGroups());
+        this.groupCount = items.getGroupCount();
+        this.nodeLimit = nodeLimit;
+        this.deadline = deadline;
+
+        initIncrements(pruned.getHullGroups());
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem to optimality.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @return the maximum profit possible, just like
+     *         {@link MultipleChoiceKnapsackSolver#pack(ItemGroup[], int)}.
+     */
+    public static int pack(final ItemGroup[] itemGroups, final int capacity) {
+        return solve(itemGroups, capacity, UNLIMITED, UNLIMITED).getProfit();
+    }
+
+    /**
+     * Searches for an optimal packing until the search is done or runs into one of the limits.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @param nodeLimit
+     *            maximum number of search nodes to visit {@code > 0}, or {@link #UNLIMITED}.
+     * @param timeLimitMillis
+     *            maximum number of milliseconds to search for {@code > 0}, or
+     *            {@link #UNLIMITED}.
+     * @return the best profit found and an upper bound on the optimal profit.
+     * @throws IllegalArgumentException
+     *             if any of the two limits is not positive.
+     */
+    public static BranchAndBoundResult solve(final ItemGroup[] itemGroups, final int capacity,
+            final long nodeLimit, final long timeLimitMillis) {
+        if (nodeLimit < 1) {
+            throw new IllegalArgumentException("nodeLimit must be positive.");
+        }
+
+        if (timeLimitMillis < 1) {
+            throw new IllegalArgumentException("timeLimitMillis must be positive.");
+        }
+
+        // Just like the dynamic programming solver, we pack nothing if there is no capacity
+        if (itemGroups.length == 0 || capacity <= 0) {
+            return new BranchAndBoundResult(0, 0, 0);
+        }
+
+        long deadline = timeLimitMillis >= UNLIMITED / 1_000_000
+                ? UNLIMITED
+                : System.nanoTime() + timeLimitMillis * 1_000_000;
+
+        return new BranchAndBoundKnapsackSolver(ItemGroupPruner.prune(itemGroups, capacity),
+                capacity, nodeLimit, deadline).solve();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Initialization
+
+    /**
+     * Collects the increments along each group's upper convex hull and sorts them by decreasing
+     * efficiency.
+     */
+    private void initIncrements(final ItemGroup[] hullGroups) {
+        int incrementCount = 0;
+        for (ItemGroup group : hullGroups) {
+            incrementCount += group.getItems().size();
+        }
+
+        int[] groups = new int[incrementCount];
+        int[] weights = new int[incrementCount];
+        int[] profits = new int[incrementCount];
+        int index = 0;
+        for (int g = 0; g < hullGroups.length; g++) {
+            int previousWeight = 0;
+            int previousProfit = 0;
+
+            for (Item item : hullGroups[g].getItems()) {
+                groups[index] = g;
+                weights[index] = item.getWeight() - previousWeight;
+                profits[index] = item.getProfit() - previousProfit;
+                previousWeight = item.getWeight();
+                previousProfit = item.getProfit();
+                index++;
+            }
+        }
+
+        // Sort by decreasing profit per weight. Increments without weight come first
+        int[] order = new int[incrementCount];
+        for (int i = 0; i < incrementCount; i++) {
+            order[i] = i;
+        }
+        sortByEfficiency(order, new int[incrementCount], 0, incrementCount, weights, profits);
+
+        incrementGroups = new int[incrementCount];
+        incrementWeights = new int[incrementCount];
+        incrementProfits = new int[incrementCount];
+        for (int i = 0; i < incrementCount; i++) {
+            incrementGroups[i] = groups[order[i]];
+            incrementWeights[i] = weights[order[i]];
+            incrementProfits[i] = profits[order[i]];
+        }
+    }
+
+    /**
+     * Merge sorts the increment indices {@code order[from]} (incl) to {@code order[to]} (excl) by
+     * decreasing efficiency, comparing the fractions by cross-multiplication. The sort is stable.
+     * {@code buffer} must be as long as {@code order}.
+     */
+    private static void sortByEfficiency(final int[] order, final int[] buffer, final int from,
+            final int to, final int[] weights, final int[] profits) {
+        if (to - from < 2) {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        sortByEfficiency(order, buffer, from, middle, weights, profits);
+        sortByEfficiency(order, buffer, middle, to, weights, profits);
+
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            // Take from the right half only if it is strictly more efficient, which keeps ties in
+            // their order
+            if (right < to && (left == middle
+                    || (long) profits[buffer[right]] * weights[buffer[left]]
+                            > (long) profits[buffer[left]] * weights[buffer[right]])) {
+                order[i] = buffer[right++];
+            } else {
+                order[i] = buffer[left++];
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Search
+
+    /**
+     * Runs the search and returns its result.
+     */
+    private BranchAndBoundResult solve() {
+        search();
+
+        long upperBound = aborted ? openBound : bestProfit;
+        return new BranchAndBoundResult((int) Math.min(Integer.MAX_VALUE, bestProfit),
+                (int) Math.min(Integer.MAX_VALUE, upperBound), nodes);
+    }
+
+    /**
+     * Explores the search tree depth first. The node at depth {@code g} has chosen items for all
+     * groups before {@code g}, so the path to the current node is kept in arrays indexed by
+     * group instead of on the call stack, which a catalogue with many groups would overflow.
+     */
+    private void search() {
+        // The capacity left and the profit made at each node of the current path, and the next
+        // of its children to explore, as an item index: the most profitable item comes first,
+        // and first - 1 of the group stands for packing none of its items
+        int[] remainingAt = new int[groupCount + 1];
+        long[] profitAt = new long[groupCount + 1];
+        int[] nextItem = new int[groupCount + 1];
+
+        remainingAt[0] = capacity;
+        int group = visit(0, capacity, 0) ? 0 : -1;
+        if (group == 0) {
+            nextItem[0] = items.groupStarts[1] - 1;
+        }
+
+        while (group >= 0) {
+            int first = items.groupStarts[group];
+            int j = nextItem[group];
+            if (j < first - 1) {
+                // All children are done, so go back to the parent
+                group--;
+                continue;
+            }
+            nextItem[group] = j - 1;
+
+            int itemWeight = j >= first ? items.weights[j] : 0;
+            int itemProfit = j >= first ? items.profits[j] : 0;
+            int remaining = remainingAt[group] - itemWeight;
+            long profit = profitAt[group] + itemProfit;
+            if (remaining < 0) {
+                continue;
+            }
+
+            if (aborted) {
+                // We won't explore this child, but need to know how good it could have been
+                openBound = Math.max(openBound, bound(group + 1, remaining, profit));
+            } else if (visit(group + 1, remaining, profit)) {
+                group++;
+                remainingAt[group] = remaining;
+                profitAt[group] = profit;
+                nextItem[group] = items.groupStarts[group + 1] - 1;
+            }
+        }
+    }
+
+    /**
+     * Visits the search node at which items have been chosen for all groups before
+     * {@code group}, leaving {@code remaining} capacity and making {@code profit}, and returns
+     * whether its children need to be explored.
+     */
+    private boolean visit(final int group, final int remaining, final long profit) {
+        nodes++;
+        if (limitReached()) {
+            aborted = true;
+            openBound = Math.max(openBound, bound(group, remaining, profit));
+            return false;
+        }
+
+        // Packing nothing more is always possible, and bounding yields another feasible packing
+        bestProfit = Math.max(bestProfit, profit);
+        return group < groupCount && bound(group, remaining, profit) > bestProfit;
+    }
+
+    /**
+     * Computes the linear relaxation bound of the search node at which items have been chosen
+     * for all groups before {@code group}, leaving {@code remaining} capacity and making
+     * {@code profit}. As a side effect, updates the best profit with the packing made up of the
+     * increments that fit completely.
+     *
+     * <p>Profits are integral, so the bound is rounded down. It is computed in exact integer
+     * arithmetic, as rounding errors could otherwise push it below the optimum of the node.</p>
+     */
+    private long bound(final int group, final int remaining, final long profit) {
+        int left = remaining;
+        long integralProfit = profit;
+
+        for (int i = 0; i < incrementGroups.length; i++) {
+            if (incrementGroups[i] < group) {
+                continue;
+            }
+
+            if (incrementWeights[i] <= left) {
+                left -= incrementWeights[i];
+                integralProfit += incrementProfits[i];
+            } else {
+                bestProfit = Math.max(bestProfit, integralProfit);
+                return integralProfit + incrementProfits[i] * (long) left / incrementWeights[i];
+            }
+        }
+
+        bestProfit = Math.max(bestProfit, integralProfit);
+        return integralProfit;
+    }
+
+    /**
+     * Checks whether we have visited as many nodes or spent as much time as we may.
+     */
+    private boolean limitReached() {
+        if (nodes > nodeLimit) {
+            return true;
+        }
+
+        return deadline != UNLIMITED && nodes % CLOCK_INTERVAL == 0 && System.nanoTime() > deadline;
+    }
+
+}
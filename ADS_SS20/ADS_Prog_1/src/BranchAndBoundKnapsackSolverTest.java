@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class BranchAndBoundKnapsackSolverTest {
+
+	@Test
+	public void testInvalidLimits() {
+		ItemGroup[] itemGroups = { MultipleChoiceKnapsackSolverTest.group(new Item(3, 2)) };
+
+		assertThrows(IllegalArgumentException.class, () -> BranchAndBoundKnapsackSolver.solve(
+				itemGroups, 5, 0, BranchAndBoundKnapsackSolver.UNLIMITED));
+		assertThrows(IllegalArgumentException.class, () -> BranchAndBoundKnapsackSolver.solve(
+				itemGroups, 5, BranchAndBoundKnapsackSolver.UNLIMITED, 0));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 20})
+	public void testNodeLimit(int nodeLimit) {
+		Random random = new Random(nodeLimit);
+
+		for (int round = 0; round < 300; round++) {
+			ItemGroup[] itemGroups = MultipleChoiceKnapsackSolverTest.randomGroups(random,
+					1 + random.nextInt(7), 5, 1 + random.nextInt(40), 1 + random.nextInt(40));
+			int capacity = random.nextInt(80);
+			int optimum = MultipleChoiceKnapsackSolverTest.bruteForce(itemGroups, capacity);
+			BranchAndBoundResult result = BranchAndBoundKnapsackSolver.solve(itemGroups, capacity,
+					nodeLimit, BranchAndBoundKnapsackSolver.UNLIMITED);
+
+			// The node that finds the limit exceeded is counted as well
+			assertTrue(result.getNodes() <= nodeLimit + 1, "The search visited too many nodes.");
+			assertTrue(result.getProfit() <= optimum, "The profit found exceeds the optimum.");
+			assertTrue(result.getUpperBound() >= optimum, "The upper bound is below the optimum.");
+			if (result.isOptimal()) {
+				assertEquals(optimum, result.getProfit());
+				assertEquals(0.0, result.getGap());
+			}
+		}
+	}
+
+	@Test
+	public void testAbortedSearch() {
+		ItemGroup[] itemGroups = MultipleChoiceKnapsackSolverTest.randomGroups(new Random(42), 300,
+				20, 1_000_000, 1_000_000);
+
+		BranchAndBoundResult result = BranchAndBoundKnapsackSolver.solve(itemGroups, 30_000_000,
+				10, BranchAndBoundKnapsackSolver.UNLIMITED);
+		assertFalse(result.isOptimal());
+		assertTrue(result.getProfit() > 0, "Bounding the root should have found a packing.");
+		assertTrue(result.getGap() > 0 && result.getGap() < 1);
+		assertEquals(11, result.getNodes());
+	}
+
+	@Test
+	public void testManyGroups() {
+		// Every bound is half an item above the best packing, so the search goes down to the
+		// last group, far deeper than the call stack would allow
+		int groupCount = 20_000;
+		ItemGroup[] itemGroups = new ItemGroup[groupCount];
+		for (int g = 0; g < groupCount; g++) {
+			itemGroups[g] = MultipleChoiceKnapsackSolverTest.group(new Item(3, 2));
+		}
+
+		BranchAndBoundResult result = BranchAndBoundKnapsackSolver.solve(itemGroups,
+				2 * groupCount - 1, BranchAndBoundKnapsackSolver.UNLIMITED,
+				BranchAndBoundKnapsackSolver.UNLIMITED);
+		assertTrue(result.isOptimal());
+		assertEquals(3 * (groupCount - 1), result.getProfit());
+	}
+
+	@Test
+	public void testFallback() {
+		// Neither table fits an array, so the solver has to fall back to branch and bound
+		ItemGroup[] itemGroups = new ItemGroup[3];
+		for (int g = 0; g < itemGroups.length; g++) {
+			itemGroups[g] = MultipleChoiceKnapsackSolverTest.group(
+					new Item(1_000_000_000, 1_000_000_000 + g), new Item(5, 1));
+		}
+
+		for (MultipleChoiceKnapsackSolver.Engine engine : MultipleChoiceKnapsackSolver.Engine
+				.values()) {
+			assertEquals(2_000_000_005,
+					MultipleChoiceKnapsackSolver.pack(itemGroups, Integer.MAX_VALUE - 1, engine));
+		}
+	}
+
+}
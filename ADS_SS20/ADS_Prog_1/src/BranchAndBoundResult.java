@@ -0,0 +1,67 @@
+/**
+ * The outcome of a branch-and-bound search for a multiple choice knapsack packing. If the search
+ * ran into its node or time limit, the profit is that of the best packing found so far and the
+ * upper bound tells how far from optimal it can at most be.
+ */
+public class BranchAndBoundResult {
+
+	/** Profit of the best packing found. */
+	private final int profit;
+	/** No packing has a profit larger than this. */
+	private final int upperBound;
+	/** Number of search nodes visited. */
+	private final long nodes;
+
+	/**
+	 * Creates a new instance with the given data.
+	 */
+	BranchAndBoundResult(final int profit, final int upperBound, final long nodes) {
+		this.profit = profit;
+		this.upperBound = Math.max(profit, upperBound);
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Returns the profit of the best packing found.
+	 */
+	public int getProfit() {
+		return profit;
+	}
+
+	/**
+	 * Returns an upper bound on the optimal profit. Equals {@link #getProfit()} if the search
+	 * finished.
+	 */
+	public int getUpperBound() {
+		return upperBound;
+	}
+
+	/**
+	 * Returns the relative gap between the profit found and the upper bound, that is,
+	 * {@code (upperBound - profit) / upperBound}, or {@code 0} if the upper bound is {@code 0}.
+	 * The packing found is at least {@code (1 - gap)}-optimal.
+	 */
+	public double getGap() {
+		return upperBound == 0 ? 0 : (double) (upperBound - profit) / upperBound;
+	}
+
+	/**
+	 * Returns whether the profit found is known to be optimal.
+	 */
+	public boolean isOptimal() {
+		return profit == upperBound;
+	}
+
+	/**
+	 * Returns the number of search nodes that were visited.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	@Override
+	public String toString() {
+		return "profit " + profit + ", upper bound " + upperBound + ", " + nodes + " nodes";
+	}
+
+}
@@ -0,0 +1,87 @@
+/**
+ * The optimal profit of a multiple choice knapsack instance as a function of the capacity. It is
+ * built from a single profit-indexed table: once the last column holds, for each profit, the
+ * minimum weight of a packing with <em>at least</em> that profit, it is sorted by weight, and the
+ * optimal profit for a capacity is the largest profit whose weight still fits. Each query is thus
+ * a binary search instead of another solve.
+ */
+public class CapacityProfile {
+
+	/** Marks profits that no packing within the maximum capacity achieves. */
+	private static final int IMPOSSIBLE = Integer.MAX_VALUE;
+
+	/**
+	 * For each profit {@code p}, the minimum weight of a packing with a profit of at least
+	 * {@code p}. Non-decreasing, with {@code minWeights[0] == 0}; profits that are not possible
+	 * within the maximum capacity map to {@link #IMPOSSIBLE}.
+	 */
+	private final int[] minWeights;
+	/** The largest capacity this profile answers queries for. */
+	private final int maxCapacity;
+
+	/**
+	 * Creates a new profile from the last column of a profit-indexed table.
+	 *
+	 * @param lastColumn
+	 *            the minimum weight of a packing with exactly each profit. Turned into
+	 *            {@link #minWeights} in place.
+	 * @param maxCapacity
+	 *            the capacity the table was computed for.
+	 */
+	CapacityProfile(final int[] lastColumn, final int maxCapacity) {
+		// A packing with profit exactly q also has a profit of at least p for all p <= q, so the
+		// minimum weight for p is the minimum over all later rows
+		for (int p = lastColumn.length - 2; p >= 0; p--) {
+			lastColumn[p] = Math.min(lastColumn[p], lastColumn[p + 1]);
+		}
+
+		this.minWeights = lastColumn;
+		this.maxCapacity = maxCapacity;
+	}
+
+	/**
+	 * Returns the largest capacity this profile answers queries for.
+	 */
+	public int getMaxCapacity() {
+		return maxCapacity;
+	}
+
+	/**
+	 * Returns the maximum profit possible with the given capacity, which is the same as what
+	 * {@link MultipleChoiceKnapsackSolver#pack(ItemGroup[], int)} returns for it.
+	 *
+	 * @param capacity
+	 *            the maximum weight allowed for the knapsack, at most {@link #getMaxCapacity()}.
+	 * @return the maximum profit possible.
+	 * @throws IllegalArgumentException
+	 *             if the capacity exceeds the maximum capacity.
+	 */
+	public int profitAt(final int capacity) {
+		if (capacity > maxCapacity) {
+			throw new IllegalArgumentException("capacity cannot exceed " + maxCapacity + ".");
+		}
+
+		// Just like the solver, we pack nothing if there is no capacity
+		if (capacity <= 0) {
+			return 0;
+		}
+
+		// Binary search for the largest profit whose minimum weight still fits. Row 0 always
+		// does, so low stays a valid answer. Impossible profits must not fit even if the
+		// capacity happens to be Integer.MAX_VALUE
+		int low = 0;
+		int high = minWeights.length - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+
+			if (minWeights[middle] != IMPOSSIBLE && minWeights[middle] <= capacity) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		return low;
+	}
+
+}
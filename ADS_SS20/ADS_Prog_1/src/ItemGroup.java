@@ -1,5 +1,5 @@
-import java.awt.*;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * A group of items. At most one item of each group can be included in the
@@ -8,7 +8,7 @@ import java.util.Collections;
 public class ItemGroup {
 
 	/** The items in this group. */
-	private final java.util.List<Item> items;
+	private final List<Item> items;
 
 	/**
 	 *
@@ -17,7 +17,7 @@ public class ItemGroup {
 	 * @param theItems
 	 *            list of items to group.
 	 */
-	public ItemGroup(final java.util.List<Item> theItems) {
+	public ItemGroup(final List<Item> theItems) {
 		// Wrap the list in an unmodifiable list to prevent people from
 		// changing it
 		items = Collections.unmodifiableList(theItems);
@@ -0,0 +1,222 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Shrinks item groups before they are handed to the dynamic programming solver. An item is
+ * <em>dominated</em> if another item of its group has at least the same profit at no more weight.
+ * Since at most one item per group is packed, a dominated item can always be swapped for the
+ * item dominating it, so removing dominated items (and items that are heavier than the knapsack)
+ * does not change the optimal profit.
+ *
+ * <p>The remaining items of a group, sorted by weight, have strictly increasing profits. An item
+ * is <em>LP-dominated</em> if it lies below the upper convex hull of these items (and the empty
+ * packing). LP-dominated items never take part in an optimal solution of the linear relaxation,
+ * but they may well be part of an optimal integral packing. That is why they are only counted
+ * and made available as separate hull groups (for bounds and heuristics), but never removed from
+ * the groups the exact solver works with.</p>
+ */
+public class ItemGroupPruner {
+
+    // Sorts items by ascending weight and, among items of equal weight, by descending profit.
+    private static final Comparator<Item> BY_WEIGHT_THEN_PROFIT = (item1, item2) ->
+            item1.getWeight() != item2.getWeight()
+                    ? Integer.compare(item1.getWeight(), item2.getWeight())
+                    : Integer.compare(item2.getProfit(), item1.getProfit());
+
+    /**
+     * The outcome of pruning a list of item groups.
+     */
+    public static class Result {
+
+        // The groups without overweight and dominated items.
+        private final ItemGroup[] itemGroups;
+        // The groups with only the items on the upper convex hull.
+        private final ItemGroup[] hullGroups;
+        // Number of items before pruning.
+        private final int originalItemCount;
+        // Number of items removed because they are heavier than the knapsack.
+        private final int overweightCount;
+        // Number of items removed because they are dominated.
+        private final int dominatedCount;
+        // Number of undominated items that are LP-dominated.
+        private final int lpDominatedCount;
+
+        private Result(final ItemGroup[] itemGroups, final ItemGroup[] hullGroups,
+                final int originalItemCount, final int overweightCount, final int dominatedCount,
+                final int lpDominatedCount) {
+            this.itemGroups = itemGroups;
+            this.hullGroups = hullGroups;
+            this.originalItemCount = originalItemCount;
+            this.overweightCount = overweightCount;
+            this.dominatedCount = dominatedCount;
+            this.lpDominatedCount = lpDominatedCount;
+        }
+
+        /**
+         * Returns the pruned groups, sorted by weight. Groups that lost all of their items are
+         * left out, so the array may be shorter than the original one and its indices do not
+         * correspond to the original groups.
+         */
+        public ItemGroup[] getItemGroups() {
+            return itemGroups;
+        }
+
+        /**
+         * Returns the pruned groups reduced to the items on their upper convex hull, in the same
+         * order as {@link #getItemGroups()}. These are enough to solve the linear relaxation,
+         * but not to solve the knapsack problem exactly.
+         */
+        public ItemGroup[] getHullGroups() {
+            return hullGroups;
+        }
+
+        /**
+         * Returns the number of items in all groups before pruning.
+         */
+        public int getOriginalItemCount() {
+            return originalItemCount;
+        }
+
+        /**
+         * Returns the number of items removed because they are heavier than the knapsack.
+         */
+        public int getOverweightCount() {
+            return overweightCount;
+        }
+
+        /**
+         * Returns the number of items removed because they are dominated.
+         */
+        public int getDominatedCount() {
+            return dominatedCount;
+        }
+
+        /**
+         * Returns the number of items removed in total.
+         */
+        public int getRemovedCount() {
+            return overweightCount + dominatedCount;
+        }
+
+        /**
+         * Returns the number of remaining items that are LP-dominated, that is, the number of
+         * items that are in {@link #getItemGroups()} but not in {@link #getHullGroups()}.
+         */
+        public int getLpDominatedCount() {
+            return lpDominatedCount;
+        }
+
+        @Override
+        public String toString() {
+            return originalItemCount + " items, removed " + overweightCount + " overweight and "
+                    + dominatedCount + " dominated, " + lpDominatedCount + " more LP-dominated";
+        }
+    }
+
+    /**
+     * Removes items heavier than the capacity and dominated items from the given groups.
+     *
+     * @param itemGroups
+     *            list of item groups.
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @return the pruned groups along with statistics.
+     */
+    public static Result prune(final ItemGroup[] itemGroups, final int capacity) {
+        List<ItemGroup> prunedGroups = new ArrayList<>(itemGroups.length);
+        List<ItemGroup> hullGroups = new ArrayList<>(itemGroups.length);
+        int originalItemCount = 0;
+        int overweightCount = 0;
+        int dominatedCount = 0;
+        int lpDominatedCount = 0;
+
+        for (ItemGroup group : itemGroups) {
+            List<Item> items = group.getItems();
+            originalItemCount += items.size();
+
+            // Keep only the items that fit into the knapsack
+            List<Item> fitting = new ArrayList<>(items.size());
+            for (Item item : items) {
+                if (item.getWeight() <= capacity) {
+                    fitting.add(item);
+                }
+            }
+            overweightCount += items.size() - fitting.size();
+
+            List<Item> undominated = removeDominated(fitting);
+            dominatedCount += fitting.size() - undominated.size();
+
+            if (!undominated.isEmpty()) {
+                List<Item> hull = upperConvexHull(undominated);
+                lpDominatedCount += undominated.size() - hull.size();
+
+                prunedGroups.add(new ItemGroup(undominated));
+                hullGroups.add(new ItemGroup(hull));
+            }
+        }
+
+        return new Result(prunedGroups.toArray(new ItemGroup[0]),
+                hullGroups.toArray(new ItemGroup[0]), originalItemCount, overweightCount,
+                dominatedCount, lpDominatedCount);
+    }
+
+    /**
+     * Returns the items of the given list that are not dominated by another item, sorted by
+     * weight. Their profits are strictly increasing. Items without profit are removed as well,
+     * since packing nothing dominates them.
+     */
+    static List<Item> removeDominated(final List<Item> items) {
+        List<Item> sorted = new ArrayList<>(items);
+        sorted.sort(BY_WEIGHT_THEN_PROFIT);
+
+        // Going by increasing weight, an item is only worth keeping if it beats the profit of
+        // all lighter items (and of the equally heavy ones before it)
+        List<Item> undominated = new ArrayList<>(sorted.size());
+        int bestProfit = 0;
+        for (Item item : sorted) {
+            if (item.getProfit() > bestProfit) {
+                undominated.add(item);
+                bestProfit = item.getProfit();
+            }
+        }
+
+        return undominated;
+    }
+
+    /**
+     * Returns the items of the given undominated list (as returned by
+     * {@link #removeDominated(List)}) that lie on the upper convex hull of the items and the
+     * empty packing. Going from one hull item to the next, the incremental efficiency (profit
+     * gained per weight added) strictly decreases.
+     */
+    static List<Item> upperConvexHull(final List<Item> undominated) {
+        List<Item> hull = new ArrayList<>(undominated.size());
+
+        for (Item item : undominated) {
+            // Remove hull items that lie on or below the line from their predecessor (or the
+            // empty packing) to the new item
+            while (!hull.isEmpty()) {
+                Item last = hull.get(hull.size() - 1);
+                int baseProfit = hull.size() > 1 ? hull.get(hull.size() - 2).getProfit() : 0;
+                int baseWeight = hull.size() > 1 ? hull.get(hull.size() - 2).getWeight() : 0;
+
+                long lastProfitGain = (long) last.getProfit() - baseProfit;
+                long lastWeightGain = (long) last.getWeight() - baseWeight;
+                long itemProfitGain = (long) item.getProfit() - baseProfit;
+                long itemWeightGain = (long) item.getWeight() - baseWeight;
+
+                // last is kept if its efficiency beats that of the new item, both seen from base
+                if (lastProfitGain * itemWeightGain > itemProfitGain * lastWeightGain) {
+                    break;
+                }
+                hull.remove(hull.size() - 1);
+            }
+
+            hull.add(item);
+        }
+
+        return hull;
+    }
+
+}
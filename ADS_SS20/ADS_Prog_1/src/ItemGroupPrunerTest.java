@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ItemGroupPrunerTest {
+
+	@Test
+	public void testExample() {
+		ItemGroup[] itemGroups = {
+				// (2, 1) is dominated by (3, 1), (4, 4) by (5, 3), and (9, 9) doesn't fit
+				MultipleChoiceKnapsackSolverTest.group(new Item(2, 1), new Item(3, 1),
+						new Item(5, 3), new Item(4, 4), new Item(9, 9)),
+				// Loses its only item
+				MultipleChoiceKnapsackSolverTest.group(new Item(7, 8)),
+				// (3, 2) lies below the line from (2, 1) to (5, 3)
+				MultipleChoiceKnapsackSolverTest.group(new Item(2, 1), new Item(3, 2),
+						new Item(5, 3)) };
+
+		ItemGroupPruner.Result result = ItemGroupPruner.prune(itemGroups, 5);
+		assertEquals(9, result.getOriginalItemCount());
+		assertEquals(2, result.getOverweightCount());
+		assertEquals(2, result.getDominatedCount());
+		assertEquals(4, result.getRemovedCount());
+		assertEquals(1, result.getLpDominatedCount());
+
+		assertEquals(2, result.getItemGroups().length);
+		assertItems(result.getItemGroups()[0].getItems(), 3, 1, 5, 3);
+		assertItems(result.getItemGroups()[1].getItems(), 2, 1, 3, 2, 5, 3);
+		assertItems(result.getHullGroups()[0].getItems(), 3, 1, 5, 3);
+		assertItems(result.getHullGroups()[1].getItems(), 2, 1, 5, 3);
+	}
+
+	@Test
+	public void testOptimumUnchanged() {
+		Random random = new Random(8);
+
+		for (int round = 0; round < 500; round++) {
+			ItemGroup[] itemGroups = MultipleChoiceKnapsackSolverTest.randomGroups(random,
+					1 + random.nextInt(6), 6, 1 + random.nextInt(20), 1 + random.nextInt(30));
+			int capacity = random.nextInt(60);
+			ItemGroupPruner.Result result = ItemGroupPruner.prune(itemGroups, capacity);
+
+			assertEquals(MultipleChoiceKnapsackSolverTest.bruteForce(itemGroups, capacity),
+					MultipleChoiceKnapsackSolverTest.bruteForce(result.getItemGroups(), capacity));
+
+			// Within a group, the remaining items get heavier and more profitable
+			for (ItemGroup group : result.getItemGroups()) {
+				List<Item> items = group.getItems();
+				for (int j = 1; j < items.size(); j++) {
+					assertTrue(items.get(j).getWeight() > items.get(j - 1).getWeight());
+					assertTrue(items.get(j).getProfit() > items.get(j - 1).getProfit());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that the given items have the given profits and weights, alternating.
+	 */
+	private static void assertItems(List<Item> items, int... profitsAndWeights) {
+		assertEquals(profitsAndWeights.length / 2, items.size());
+		for (int j = 0; j < items.size(); j++) {
+			assertEquals(profitsAndWeights[2 * j], items.get(j).getProfit());
+			assertEquals(profitsAndWeights[2 * j + 1], items.get(j).getWeight());
+		}
+	}
+
+}
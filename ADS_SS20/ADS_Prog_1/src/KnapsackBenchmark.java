@@ -0,0 +1,146 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rough throughput measurements for the multiple choice knapsack solvers. Run with
+ * {@code java KnapsackBenchmark}. Every measurement is repeated a few times so that the JIT has
+ * a chance to warm up; the last round is the most telling.
+ */
+public class KnapsackBenchmark {
+
+    // Number of rounds per measurement.
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        benchmarkBatch();
+        benchmarkApproximation();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Batch Solving
+
+    /**
+     * Compares solving many small instances one call at a time, one after the other with a
+     * reused context, and as a batch. The first two differ only in the reuse of buffers, the
+     * last two only in running in parallel.
+     */
+    private static void benchmarkBatch() {
+        Random random = new Random(42);
+        int instanceCount = 20_000;
+
+        List<ItemGroup[]> instances = new ArrayList<>(instanceCount);
+        int[] capacities = new int[instanceCount];
+        for (int i = 0; i < instanceCount; i++) {
+            instances.add(randomInstance(random, 5 + random.nextInt(20), 8, 100, 100));
+            capacities[i] = 50 + random.nextInt(500);
+        }
+
+        System.out.println("Batch of " + instanceCount + " instances");
+        KnapsackSolverContext context = new KnapsackSolverContext();
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < instanceCount; i++) {
+                checksum += MultipleChoiceKnapsackSolver.pack(instances.get(i), capacities[i]);
+            }
+            long single = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long contextChecksum = 0;
+            for (int i = 0; i < instanceCount; i++) {
+                contextChecksum += context.pack(instances.get(i), capacities[i]);
+            }
+            long reused = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long batchChecksum = 0;
+            for (int profit : MultipleChoiceKnapsackSolver.packAll(instances, capacities)) {
+                batchChecksum += profit;
+            }
+            long batch = System.nanoTime() - start;
+
+            System.out.printf("  round %d: pack %8.0f instances/s, context %8.0f instances/s,"
+                    + " packAll %8.0f instances/s%s%n", round, perSecond(instanceCount, single),
+                    perSecond(instanceCount, reused), perSecond(instanceCount, batch),
+                    checksum == contextChecksum && checksum == batchChecksum
+                            ? "" : " (results differ!)");
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Approximation
+
+    /**
+     * Shows how the table size, running time and profit of the approximation change with
+     * epsilon, compared to solving exactly.
+     */
+    private static void benchmarkApproximation() {
+        Random random = new Random(42);
+        ItemGroup[] instance = randomInstance(random, 100, 5, 20_000, 1_000_000);
+        int capacity = 30_000_000;
+        double[] epsilons = { 0.5, 0.2, 0.1, 0.05, 0.02, 0.01, 0.005 };
+
+        System.out.println("Approximation of one instance with 100 groups");
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            int optimum = MultipleChoiceKnapsackSolver.pack(instance, capacity);
+            System.out.printf("  round %d: exact       profit %9d in %7.1f ms%n", round, optimum,
+                    millis(System.nanoTime() - start));
+
+            for (double epsilon : epsilons) {
+                start = System.nanoTime();
+                ApproximateKnapsackResult result =
+                        MultipleChoiceKnapsackSolver.pack(instance, capacity, epsilon);
+                long time = System.nanoTime() - start;
+
+                System.out.printf("           eps %5.3f   profit %9d in %7.1f ms,"
+                        + " upper bound %9d, %9d rows%n", epsilon, result.getProfit(),
+                        millis(time), result.getUpperBound(), result.getTableRows());
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Utilities
+
+    /**
+     * Creates an instance with the given number of groups, each of which has between one and
+     * {@code maxItems} items with random profits and weights.
+     */
+    static ItemGroup[] randomInstance(final Random random, final int groups, final int maxItems,
+            final int maxProfit, final int maxWeight) {
+        ItemGroup[] itemGroups = new ItemGroup[groups];
+
+        for (int g = 0; g < groups; g++) {
+            int itemCount = 1 + random.nextInt(maxItems);
+            List<Item> items = new ArrayList<>(itemCount);
+
+            for (int j = 0; j < itemCount; j++) {
+                items.add(new Item(1 + random.nextInt(maxProfit), random.nextInt(maxWeight + 1)));
+            }
+
+            itemGroups[g] = new ItemGroup(items);
+        }
+
+        return itemGroups;
+    }
+
+    /**
+     * Converts a count of things done in the given number of nanoseconds to things per second.
+     */
+    private static double perSecond(final int count, final long nanos) {
+        return count * 1e9 / nanos;
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     */
+    private static double millis(final long nanos) {
+        return nanos / 1e6;
+    }
+
+}
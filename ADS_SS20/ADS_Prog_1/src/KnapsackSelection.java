@@ -0,0 +1,84 @@
+import java.util.Arrays;
+
+/**
+ * The result of packing a multiple choice knapsack: the profit and weight of the packing, and
+ * which item of each group was packed, if any.
+ */
+public class KnapsackSelection {
+
+	/** Index reported for groups none of whose items is packed. */
+	public static final int NOTHING_CHOSEN = -1;
+
+	/** Profit of the packing. */
+	private final int profit;
+	/** Weight of the packing. */
+	private final int weight;
+	/** Index of the packed item within each group, or {@link #NOTHING_CHOSEN}. */
+	private final int[] chosenItems;
+
+	/**
+	 * Creates a new instance with the given data.
+	 *
+	 * @param profit
+	 *            profit of the packing.
+	 * @param weight
+	 *            weight of the packing.
+	 * @param chosenItems
+	 *            index of the packed item within each group, or {@link #NOTHING_CHOSEN}.
+	 *            The array is not copied.
+	 */
+	KnapsackSelection(final int profit, final int weight, final int[] chosenItems) {
+		this.profit = profit;
+		this.weight = weight;
+		this.chosenItems = chosenItems;
+	}
+
+	/**
+	 * Returns the profit of the packing, or {@code Integer.MAX_VALUE} if it is larger.
+	 */
+	public int getProfit() {
+		return profit;
+	}
+
+	/**
+	 * Returns the weight of the packing.
+	 */
+	public int getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Returns the number of groups the packing chose from.
+	 */
+	public int getGroupCount() {
+		return chosenItems.length;
+	}
+
+	/**
+	 * Returns the index of the item packed from the given group in that group's list of items,
+	 * or {@link #NOTHING_CHOSEN} if none of its items was packed.
+	 *
+	 * @param group
+	 *            index of the group.
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such group.
+	 */
+	public int getChosenItem(final int group) {
+		return chosenItems[group];
+	}
+
+	/**
+	 * Returns a copy of the chosen item indices of all groups.
+	 *
+	 * @see #getChosenItem(int)
+	 */
+	public int[] getChosenItems() {
+		return Arrays.copyOf(chosenItems, chosenItems.length);
+	}
+
+	@Override
+	public String toString() {
+		return "profit " + profit + ", weight " + weight + ", items " + Arrays.toString(chosenItems);
+	}
+
+}
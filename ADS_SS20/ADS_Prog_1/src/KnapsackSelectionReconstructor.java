@@ -0,0 +1,240 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds out which items an optimal multiple choice knapsack packing consists of without storing
+ * the whole dynamic programming table. This works like Hirschberg's algorithm: the groups are
+ * split in halves, the last column of each half's table is computed with the rolling-column
+ * solver, and combining the two columns tells us how to divide the capacity (or the profit)
+ * between the halves. Both halves are then solved recursively until single groups remain.
+ *
+ * <p>Only a constant number of columns is alive at any time, plus a recursion depth logarithmic
+ * in the number of groups. In exchange, every group takes part in one table per recursion level,
+ * so the running time grows by a logarithmic factor compared to computing the profit alone.</p>
+ */
+class KnapsackSelectionReconstructor {
+
+    // Represents an impossible knapsack in a profit-indexed column.
+    private static final int IMPOSSIBLE = Integer.MAX_VALUE;
+    // The two kinds of tables we divide instances with.
+    private static final MultipleChoiceKnapsackSolver.Engine BY_PROFIT =
+            MultipleChoiceKnapsackSolver.Engine.PROFIT_INDEXED;
+    private static final MultipleChoiceKnapsackSolver.Engine BY_WEIGHT =
+            MultipleChoiceKnapsackSolver.Engine.WEIGHT_INDEXED;
+
+    // The knapsack's capacity.
+    private final int capacity;
+    // The groups of items.
+    private final ItemGroup[] itemGroups;
+    // The same groups, packed into arrays for the solver.
+    private final PackedItemGroups items;
+    // Whether we divide the capacity (weight-indexed tables) or the profit (profit-indexed
+    // tables) between two halves.
+    private final boolean weightIndexed;
+    // The index of the item chosen from each group.
+    private final int[] chosenItems;
+
+    /**
+     * Creates a new reconstructor for the given problem instance.
+     */
+    KnapsackSelectionReconstructor(final ItemGroup[] itemGroups, final int capacity) {
+        this.capacity = capacity;
+        this.itemGroups = itemGroups;
+        this.items = new PackedItemGroups(itemGroups);
+        this.weightIndexed = capacity < items.computeMaxProfit(0, itemGroups.length);
+        this.chosenItems = new int[itemGroups.length];
+
+        Arrays.fill(chosenItems, KnapsackSelection.NOTHING_CHOSEN);
+    }
+
+    /**
+     * Computes an optimal packing and returns it.
+     */
+    KnapsackSelection reconstruct() {
+        // Just like the solver, we pack nothing if there is no capacity
+        if (itemGroups.length > 0 && capacity > 0) {
+            if (weightIndexed) {
+                chooseWithinWeight(0, itemGroups.length, capacity);
+            } else {
+                chooseWithProfit(0, itemGroups.length, optimalProfit());
+            }
+        }
+
+        long profit = 0;
+        int weight = 0;
+        for (int i = 0; i < itemGroups.length; i++) {
+            if (chosenItems[i] != KnapsackSelection.NOTHING_CHOSEN) {
+                Item item = itemGroups[i].getItems().get(chosenItems[i]);
+                profit += item.getProfit();
+                weight += item.getWeight();
+            }
+        }
+
+        // Like the solver, report profits beyond the range of an int as the largest one
+        return new KnapsackSelection((int) Math.min(Integer.MAX_VALUE, profit), weight,
+                chosenItems);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Weight-indexed Reconstruction
+
+    /**
+     * Chooses items from groups {@code from} (incl) to {@code to} (excl) such that their profit
+     * is maximal and their weight is at most {@code maxWeight}.
+     */
+    private void chooseWithinWeight(final int from, final int to, final int maxWeight) {
+        if (to - from == 1) {
+            chooseSingleWithinWeight(from, maxWeight);
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        int[] left = lastColumn(from, middle, maxWeight, BY_WEIGHT);
+        int[] right = lastColumn(middle, to, maxWeight, BY_WEIGHT);
+
+        // Both columns hold the best profit within each weight, so the best way to divide our
+        // weight between the two halves is the one that maximizes the combined profit
+        int bestLeftWeight = 0;
+        long bestProfit = -1;
+        for (int w = 0; w <= maxWeight; w++) {
+            long profit = (long) left[w] + right[maxWeight - w];
+
+            if (profit > bestProfit) {
+                bestProfit = profit;
+                bestLeftWeight = w;
+            }
+        }
+
+        // Let the columns be garbage collected before we descend
+        left = null;
+        right = null;
+
+        chooseWithinWeight(from, middle, bestLeftWeight);
+        chooseWithinWeight(middle, to, maxWeight - bestLeftWeight);
+    }
+
+    /**
+     * Chooses the most profitable item of the given group that weighs at most {@code maxWeight}.
+     */
+    private void chooseSingleWithinWeight(final int group, final int maxWeight) {
+        List<Item> items = itemGroups[group].getItems();
+
+        for (int j = 0; j < items.size(); j++) {
+            Item item = items.get(j);
+
+            if (item.getWeight() <= maxWeight && isBetter(item, chosenItems[group], items)) {
+                chosenItems[group] = j;
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Profit-indexed Reconstruction
+
+    /**
+     * Returns the optimal profit of the whole instance.
+     */
+    private int optimalProfit() {
+        int[] column = lastColumn(0, itemGroups.length, capacity, BY_PROFIT);
+
+        for (int p = column.length - 1; p > 0; p--) {
+            if (column[p] != IMPOSSIBLE && column[p] <= capacity) {
+                return p;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Chooses items from groups {@code from} (incl) to {@code to} (excl) such that their profit
+     * is exactly {@code profit} and their weight is minimal.
+     */
+    private void chooseWithProfit(final int from, final int to, final int profit) {
+        if (profit == 0) {
+            // Packing nothing is the lightest way to get no profit
+            return;
+        }
+
+        if (to - from == 1) {
+            chooseSingleWithProfit(from, profit);
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        int[] left = lastColumn(from, middle, capacity, BY_PROFIT);
+        int[] right = lastColumn(middle, to, capacity, BY_PROFIT);
+
+        // Both columns hold the lightest packing with each profit, so the best way to divide
+        // our profit between the two halves is the one that minimizes the combined weight
+        int bestLeftProfit = -1;
+        long bestWeight = Long.MAX_VALUE;
+        int lowestLeftProfit = Math.max(0, profit - (right.length - 1));
+        int highestLeftProfit = Math.min(profit, left.length - 1);
+        for (int p = lowestLeftProfit; p <= highestLeftProfit; p++) {
+            if (left[p] != IMPOSSIBLE && right[profit - p] != IMPOSSIBLE) {
+                long weight = (long) left[p] + right[profit - p];
+
+                if (weight < bestWeight) {
+                    bestWeight = weight;
+                    bestLeftProfit = p;
+                }
+            }
+        }
+        assert bestLeftProfit >= 0;
+
+        // Let the columns be garbage collected before we descend
+        left = null;
+        right = null;
+
+        chooseWithProfit(from, middle, bestLeftProfit);
+        chooseWithProfit(middle, to, profit - bestLeftProfit);
+    }
+
+    /**
+     * Chooses the lightest item of the given group whose profit is exactly {@code profit}.
+     */
+    private void chooseSingleWithProfit(final int group, final int profit) {
+        List<Item> items = itemGroups[group].getItems();
+
+        for (int j = 0; j < items.size(); j++) {
+            Item item = items.get(j);
+
+            if (item.getProfit() == profit && isBetter(item, chosenItems[group], items)) {
+                chosenItems[group] = j;
+            }
+        }
+        assert chosenItems[group] != KnapsackSelection.NOTHING_CHOSEN;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Utilities
+
+    /**
+     * Computes the last column of the table over groups {@code from} (incl) to {@code to} (excl).
+     */
+    private int[] lastColumn(final int from, final int to, final int maxWeight,
+            final MultipleChoiceKnapsackSolver.Engine engine) {
+        return MultipleChoiceKnapsackSolver.computeLastColumn(items, from, to, maxWeight, engine);
+    }
+
+    /**
+     * Checks whether the given item has a higher profit than the currently chosen item of its
+     * group, or the same profit at a lower weight. Without a chosen item, any item with a
+     * profit is better.
+     */
+    private static boolean isBetter(final Item item, final int chosen, final List<Item> items) {
+        if (chosen == KnapsackSelection.NOTHING_CHOSEN) {
+            return item.getProfit() > 0;
+        }
+
+        Item current = items.get(chosen);
+        return item.getProfit() > current.getProfit()
+                || (item.getProfit() == current.getProfit()
+                        && item.getWeight() < current.getWeight());
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Keeps the two columns of the solver's dynamic programming table and the packed items around
+ * between solves. When many instances are solved one after the other, these only need to be
+ * allocated again when an instance needs more room than all instances before, instead of once
+ * per instance.
+ *
+ * <p>A context must not be used by more than one thread at a time. To solve many instances in
+ * parallel, use {@link MultipleChoiceKnapsackSolver#packAll(java.util.List, int[])}, which gives
+ * every worker thread a context of its own.</p>
+ */
+public class KnapsackSolverContext {
+
+    // The two columns handed to the solver. They have the same length.
+    int[] firstColumn = new int[0];
+    int[] secondColumn = new int[0];
+    // The pruned items of the instance being solved.
+    final PackedItemGroups items = new PackedItemGroups();
+
+    /**
+     * Solves the multiple choice knapsack problem like
+     * {@link MultipleChoiceKnapsackSolver#pack(ItemGroup[], int)}, reusing this context's
+     * columns and packed items.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @return the maximum profit possible.
+     */
+    public int pack(final ItemGroup[] itemGroups, final int capacity) {
+        return pack(itemGroups, capacity, MultipleChoiceKnapsackSolver.Engine.AUTO);
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem like
+     * {@link MultipleChoiceKnapsackSolver#pack(ItemGroup[], int, MultipleChoiceKnapsackSolver.Engine)},
+     * reusing this context's columns and packed items.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @param engine
+     *            the engine to use.
+     * @return the maximum profit possible.
+     */
+    public int pack(final ItemGroup[] itemGroups, final int capacity,
+            final MultipleChoiceKnapsackSolver.Engine engine) {
+        return MultipleChoiceKnapsackSolver.pack(itemGroups, capacity, engine, null, 0, this);
+    }
+
+    /**
+     * Returns the number of rows the columns currently have room for.
+     */
+    public int getColumnSize() {
+        return firstColumn.length;
+    }
+
+    /**
+     * Makes sure both columns have room for at least the given number of rows. Growing columns
+     * at least double in size, so a sequence of ever larger instances causes few allocations.
+     */
+    void ensureColumnSize(final int rows) {
+        if (firstColumn.length < rows) {
+            int newSize = Math.max(rows, (int) Math.min(Integer.MAX_VALUE - 8,
+                    2L * firstColumn.length));
+
+            firstColumn = new int[newSize];
+            secondColumn = new int[newSize];
+        }
+    }
+
+}
@@ -1,32 +1,89 @@
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 public class MultipleChoiceKnapsackSolver {
-/*
+
+    /**
+     * The ways the solver can find an optimal profit. The two dynamic programming tables yield
+     * the same optimal profit, but depending on the instance one of them can be orders of
+     * magnitude smaller. If both are too large, branch and bound may still be feasible.
+     */
+    public enum Engine {
+        /** Picks whichever of the two tables has fewer rows for the given instance. */
+        AUTO,
+        /** Rows are indexed by profit and hold the minimum weight achieving that profit. */
+        PROFIT_INDEXED,
+        /** Rows are indexed by weight and hold the maximum profit within that weight. */
+        WEIGHT_INDEXED,
+        /** No table at all, see {@link BranchAndBoundKnapsackSolver}. */
+        BRANCH_AND_BOUND
+    }
+
     // Represents an impossible knapsack.
     private static final int IMPOSSIBLE = Integer.MAX_VALUE;
+    // Maximum number of rows of a table column, as arrays cannot be much longer than this.
+    static final int MAX_TABLE_ROWS = Integer.MAX_VALUE - 8;
+    // The context of each thread that solves instances for packAll.
+    private static final ThreadLocal<KnapsackSolverContext> WORKER_CONTEXTS =
+            ThreadLocal.withInitial(KnapsackSolverContext::new);
 
     // The knapsack's capacity.
     private final int capacity;
-    // The groups of items.
-    private final ads.set2.knapsack.ItemGroup[] itemGroups;
-    // Maximum profit possible.
+    // The items of all groups, packed into arrays.
+    private final PackedItemGroups items;
+    // The first group (incl) of the range of groups we pack.
+    private final int firstGroup;
+    // The last group (excl) of the range of groups we pack.
+    private final int endGroup;
+    // The pool to fill columns in parallel with, or null to fill them sequentially.
+    private final ForkJoinPool pool;
+    // Number of rows below which a column (or part of it) is filled sequentially.
+    private final int parallelCutoff;
+    // The context whose columns we reuse, or null to allocate our own.
+    private final KnapsackSolverContext context;
+    // Maximum profit possible. Only used by profit-indexed tables, for which it fits an int.
     private int maxProfit;
-    // Our main data table which holds the min-weight knapsacks.
-    private int[][] minKnapsacks;
+    // Whether our table is indexed by weight (max profit per capacity) instead of by profit
+    // (min weight per profit).
+    private boolean weightIndexed;
+    // Index of the table's last row: maxProfit if we index by profit, capacity otherwise.
+    private int lastRow;
+    // The last completed column of the table. Column i only ever depends on column
+    // i - 1, so instead of the whole table we keep two columns and swap them after each group.
+    private int[] previousColumn;
+    // The column that is currently being filled.
+    private int[] currentColumn;
 
     /**
-     * Creates a new solver for the given problem instance.
+     * Creates a new solver for the problem instance consisting of groups {@code firstGroup}
+     * (incl) to {@code endGroup} (excl) of the given items. There has to be at least one group.
+     */
+    private MultipleChoiceKnapsackSolver(final PackedItemGroups items, final int firstGroup,
+            final int endGroup, final int capacity, final Engine engine, final ForkJoinPool pool,
+            final int parallelCutoff, final KnapsackSolverContext context) {
+        assert firstGroup < endGroup;
 
-    private MultipleChoiceKnapsackSolver(final ads.set2.knapsack.ItemGroup[] itemGroups, final int capacity) {
         this.capacity = capacity;
-        this.itemGroups = itemGroups;
-
-        init();
+        this.items = items;
+        this.firstGroup = firstGroup;
+        this.endGroup = endGroup;
+        this.pool = pool;
+        this.parallelCutoff = parallelCutoff;
+        this.context = context;
+
+        init(engine);
     }
 
     /**
      * Solves the multiple choice knapsack problem using a dynamic programming
-     * algorithm based on the one introduced in the lecture.
+     * algorithm based on the one introduced in the lecture. The table is indexed
+     * either by profit or by weight, whichever has fewer rows, and only two of its
+     * columns are kept in memory at any time. The memory needed is thus linear in
+     * {@code min(maxProfit, capacity)} and independent of the number of groups.
      *
      * @param itemGroups
      *            list of non-empty item groups. All items have a profit {@code > 0.}
@@ -34,68 +91,376 @@ public class MultipleChoiceKnapsackSolver {
      *            the maximum weight allowed for the knapsack {@code >= 0}.
      * @return the maximum profit possible if at most one item of each group may
      *         be packed and the capacity may not be exceeded. If there is no such
-     *         packing, {@code 0} is returned.
+     *         packing, {@code 0} is returned. Profits beyond the range of an int
+     *         are reported as {@code Integer.MAX_VALUE}.
+     */
+    public static int pack(final ItemGroup[] itemGroups, final int capacity) {
+        return pack(itemGroups, capacity, Engine.AUTO);
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem like {@link #pack(ItemGroup[], int)}, but
+     * lets the caller choose the engine to use.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @param engine
+     *            the engine to use. {@link Engine#AUTO} picks the smaller table. If the table
+     *            asked for would have more rows than an array can hold, the other table is used
+     *            instead, or branch and bound if that one is too large as well.
+     * @return the maximum profit possible.
+     * @throws IllegalArgumentException
+     *             if {@code engine} is {@code null}.
+     */
+    public static int pack(final ItemGroup[] itemGroups, final int capacity, final Engine engine) {
+        return pack(itemGroups, capacity, engine, null, 0, null);
+    }
+
+    /**
+     * Approximately solves the multiple choice knapsack problem. All profits are divided by
+     * {@code K = epsilon * p / n} and rounded down, where {@code p} is the largest profit of an
+     * item that fits and {@code n} is the number of groups, and the scaled instance is solved
+     * exactly. Since rounding loses less than {@code K} per group, the packing found loses less
+     * than {@code epsilon * p} against the optimum, which is at least {@code p}. The sum of the
+     * scaled profits, and with it a profit-indexed table, is at most about {@code n / epsilon}
+     * times as large as the number of groups, however large the original profits are.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @param epsilon
+     *            the relative loss of profit that is acceptable, {@code 0 < epsilon < 1}.
+     * @return the profit of a packing that is at least {@code (1 - epsilon)}-optimal, along with
+     *         an upper bound on the optimal profit.
+     * @throws IllegalArgumentException
+     *             if {@code epsilon} is not between {@code 0} and {@code 1}.
+     */
+    public static ApproximateKnapsackResult pack(final ItemGroup[] itemGroups, final int capacity,
+            final double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("epsilon must be between 0 and 1.");
+        }
+
+        ItemGroup[] prunedGroups = capacity <= 0
+                ? new ItemGroup[0]
+                : ItemGroupPruner.prune(itemGroups, capacity).getItemGroups();
+        if (prunedGroups.length == 0) {
+            return new ApproximateKnapsackResult(0, 0, 1, 1);
+        }
+
+        // Pruning only left items that fit, and the most profitable of these on its own is a
+        // lower bound on the optimum
+        int maxItemProfit = 0;
+        for (ItemGroup group : prunedGroups) {
+            for (Item item : group.getItems()) {
+                maxItemProfit = Math.max(maxItemProfit, item.getProfit());
+            }
+        }
+
+        double scalingFactor = epsilon * maxItemProfit / prunedGroups.length;
+        if (scalingFactor <= 1) {
+            // Scaling wouldn't make the table any smaller, so solve exactly
+            int profit = pack(itemGroups, capacity, Engine.PROFIT_INDEXED);
+            long tableRows = new PackedItemGroups(prunedGroups)
+                    .computeMaxProfit(0, prunedGroups.length) + 1;
+            return new ApproximateKnapsackResult(profit, profit, 1,
+                    (int) Math.min(Integer.MAX_VALUE, tableRows));
+        }
+
+        // Scale the profits down, keeping each group's items in order so that the selection
+        // we get for the scaled instance tells us which of the original items to pack
+        ItemGroup[] scaledGroups = new ItemGroup[prunedGroups.length];
+        for (int g = 0; g < prunedGroups.length; g++) {
+            List<Item> items = prunedGroups[g].getItems();
+            List<Item> scaledItems = new ArrayList<>(items.size());
+
+            for (Item item : items) {
+                int scaledProfit = (int) (item.getProfit() / scalingFactor);
+                scaledItems.add(new Item(scaledProfit, item.getWeight()));
+            }
+
+            scaledGroups[g] = new ItemGroup(scaledItems);
+        }
+
+        KnapsackSelection selection = packWithSelection(scaledGroups, capacity);
+        long profit = 0;
+        for (int g = 0; g < prunedGroups.length; g++) {
+            if (selection.getChosenItem(g) != KnapsackSelection.NOTHING_CHOSEN) {
+                profit += prunedGroups[g].getItems().get(selection.getChosenItem(g)).getProfit();
+            }
+        }
+
+        // Each item of an optimal packing lost less than the scaling factor in rounding, and the
+        // packing we found is at least as good as that optimal packing after rounding
+        long upperBound = (long) Math.ceil(
+                scalingFactor * (selection.getProfit() + prunedGroups.length));
+        long tableRows = new PackedItemGroups(scaledGroups)
+                .computeMaxProfit(0, scaledGroups.length) + 1;
+
+        return new ApproximateKnapsackResult((int) Math.min(Integer.MAX_VALUE, profit),
+                (int) Math.min(Integer.MAX_VALUE, upperBound),
+                scalingFactor, (int) Math.min(Integer.MAX_VALUE, tableRows));
+    }
+
+    /**
+     * Solves a batch of multiple choice knapsack problems, spreading them over the threads of the
+     * common fork/join pool. Each thread keeps one {@link KnapsackSolverContext} for all the
+     * instances it solves, in this call and later ones, so the table's columns and the packed
+     * items are only allocated anew when an instance needs more room than all instances the
+     * thread solved before. The contexts live as long as their threads and hold on to the room
+     * the largest instance needed.
+     *
+     * @param instances
+     *            the item groups of each instance.
+     * @param capacities
+     *            the capacity of each instance, in the same order.
+     * @return the maximum profit possible for each instance, in the same order.
+     * @throws IllegalArgumentException
+     *             if there are not as many capacities as there are instances.
+     */
+    public static int[] packAll(final List<ItemGroup[]> instances, final int[] capacities) {
+        if (instances.size() != capacities.length) {
+            throw new IllegalArgumentException("need exactly one capacity per instance.");
+        }
+
+        int[] profits = new int[capacities.length];
+        int workers = Math.min(capacities.length, ForkJoinPool.getCommonPoolParallelism() + 1);
+
+        // Each worker keeps taking the next unsolved instance, which balances instances of
+        // different sizes better than assigning fixed chunks
+        AtomicInteger nextInstance = new AtomicInteger();
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            KnapsackSolverContext workerContext = WORKER_CONTEXTS.get();
+
+            for (int i = nextInstance.getAndIncrement(); i < capacities.length;
+                    i = nextInstance.getAndIncrement()) {
+                profits[i] = workerContext.pack(instances.get(i), capacities[i]);
+            }
+        });
+
+        return profits;
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem, filling each column of the table on the given
+     * pool if it has at least {@code parallelCutoff} rows, and reusing the columns of the given
+     * context if there is one. Used by {@link ParallelMultipleChoiceKnapsackSolver} and
+     * {@link KnapsackSolverContext}.
+     */
+    static int pack(final ItemGroup[] itemGroups, final int capacity, final Engine engine,
+            final ForkJoinPool pool, final int parallelCutoff,
+            final KnapsackSolverContext context) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine cannot be null.");
+        }
+
+        if (engine == Engine.BRANCH_AND_BOUND) {
+            return BranchAndBoundKnapsackSolver.pack(itemGroups, capacity);
+        }
 
-    public static int pack(final ads.set2.knapsack.ItemGroup[] itemGroups, final int capacity) {
         if (itemGroups.length == 0 || capacity <= 0) {
             return 0;
+        }
+
+        // Items that are dominated or never fit cannot improve any knapsack, and every item we
+        // drop saves a pass over a whole column. A context keeps the packed items between solves
+        PackedItemGroups items = context == null ? new PackedItemGroups() : context.items;
+        items.packPruned(itemGroups, capacity);
+        int groupCount = items.getGroupCount();
+        if (groupCount == 0) {
+            return 0;
+        }
+
+        long maxProfit = items.computeMaxProfit(0, groupCount);
+        Engine table = chooseTable(engine, capacity, maxProfit);
+        if (table == Engine.BRANCH_AND_BOUND) {
+            return BranchAndBoundKnapsackSolver.pack(itemGroups, capacity);
         } else {
-            return new MultipleChoiceKnapsackSolver(itemGroups, capacity).pack();
+            return new MultipleChoiceKnapsackSolver(items, 0, groupCount, capacity, table, pool,
+                    parallelCutoff, context).pack();
         }
     }
 
+    /**
+     * Decides which table to fill for an instance with the given capacity and sum of the
+     * groups' maximum profits: the one the engine asks for, or for {@link Engine#AUTO} the one
+     * with fewer rows. A table that would have more than {@link #MAX_TABLE_ROWS} rows is
+     * replaced by the other one, and if both are that large, {@link Engine#BRANCH_AND_BOUND} is
+     * returned.
+     */
+    private static Engine chooseTable(final Engine engine, final int capacity,
+            final long maxProfit) {
+        boolean weightIndexed = engine == Engine.AUTO
+                ? capacity < maxProfit
+                : engine == Engine.WEIGHT_INDEXED;
+        boolean weightTableFits = capacity < MAX_TABLE_ROWS;
+        boolean profitTableFits = maxProfit < MAX_TABLE_ROWS;
+
+        if (weightIndexed ? weightTableFits : profitTableFits) {
+            return weightIndexed ? Engine.WEIGHT_INDEXED : Engine.PROFIT_INDEXED;
+        } else if (weightIndexed ? profitTableFits : weightTableFits) {
+            return weightIndexed ? Engine.PROFIT_INDEXED : Engine.WEIGHT_INDEXED;
+        } else {
+            return Engine.BRANCH_AND_BOUND;
+        }
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem like {@link #pack(ItemGroup[], int)}, but also
+     * reports which item of each group is packed. The selection is reconstructed by divide and
+     * conquer over the groups instead of by storing the whole table, so the memory needed stays
+     * linear in the table's column size.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @return an optimal packing.
+     * @throws IllegalArgumentException
+     *             if both the capacity and the sum of the profits are too large for a table.
+     */
+    public static KnapsackSelection packWithSelection(final ItemGroup[] itemGroups,
+            final int capacity) {
+        return new KnapsackSelectionReconstructor(itemGroups, capacity).reconstruct();
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem for all capacities up to {@code maxCapacity}
+     * at once. This costs about as much as a single call to {@link #pack(ItemGroup[], int)}
+     * with a profit-indexed table, after which the profit for any capacity is found by binary
+     * search.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param maxCapacity
+     *            the largest capacity that will be queried {@code >= 0}. Pass
+     *            {@code Integer.MAX_VALUE} to allow queries for any capacity.
+     * @return the profile to query the profit for each capacity from.
+     * @throws IllegalArgumentException
+     *             if the sum of the profits is too large for a profit-indexed table.
+     */
+    public static CapacityProfile profileCapacities(final ItemGroup[] itemGroups,
+            final int maxCapacity) {
+        ItemGroup[] prunedGroups = ItemGroupPruner.prune(itemGroups, maxCapacity).getItemGroups();
+
+        if (prunedGroups.length == 0) {
+            return new CapacityProfile(new int[1], maxCapacity);
+        } else {
+            return new CapacityProfile(computeLastColumn(new PackedItemGroups(prunedGroups), 0,
+                    prunedGroups.length, maxCapacity, Engine.PROFIT_INDEXED), maxCapacity);
+        }
+    }
+
+    /**
+     * Fills the table for groups {@code firstGroup} (incl) to {@code endGroup} (excl) and returns
+     * its last column. For a profit-indexed table, row {@code p} holds the minimum weight of a
+     * packing with profit exactly {@code p} (or {@code Integer.MAX_VALUE} if there is none that
+     * fits). For a weight-indexed table, row {@code w} holds the maximum profit of a packing that
+     * weighs at most {@code w}, saturated at {@code Integer.MAX_VALUE}. Throws an {@code IllegalArgumentException} if the table would be
+     * too large.
+     */
+    static int[] computeLastColumn(final PackedItemGroups items, final int firstGroup,
+            final int endGroup, final int capacity, final Engine engine) {
+        MultipleChoiceKnapsackSolver solver = new MultipleChoiceKnapsackSolver(items, firstGroup,
+                endGroup, capacity, engine, null, 0, null);
+        solver.fillColumns();
+        return solver.previousColumn;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // Initialization
 
     /**
-     * Initializes our main data tables.
+     * Decides which table to use and initializes our two data columns.
+     *
+     * @throws IllegalArgumentException
+     *             if the table would have more than {@link #MAX_TABLE_ROWS} rows.
+     */
+    private void init(final Engine engine) {
+        // To define the size of a profit-indexed table we need to know the profit of all items
+        // combined, while a weight-indexed table has a row for each weight up to the capacity
+        long totalProfit = items.computeMaxProfit(firstGroup, endGroup);
+
+        if (engine == Engine.AUTO) {
+            weightIndexed = capacity < totalProfit;
+        } else {
+            weightIndexed = engine == Engine.WEIGHT_INDEXED;
+        }
 
-    private void init() {
-        // To define the size of the data tables we need to know the profit of all items combined
-        maxProfit = computeMaxProfit(itemGroups);
+        long rows = (weightIndexed ? capacity : totalProfit) + 1;
+        if (rows > MAX_TABLE_ROWS) {
+            throw new IllegalArgumentException(
+                    "a table with " + rows + " rows is too large to allocate.");
+        }
+        maxProfit = (int) Math.min(Integer.MAX_VALUE, totalProfit);
+        lastRow = (int) rows - 1;
+
+        // Allocate space for the data columns (or borrow it from our context). We need at least
+        // lastRow + 1 rows here because profits (or weights) should run from 0 to lastRow (incl)
+        if (context == null) {
+            previousColumn = new int[lastRow + 1];
+            currentColumn = new int[lastRow + 1];
+        } else {
+            context.ensureColumnSize(lastRow + 1);
+            previousColumn = context.firstColumn;
+            currentColumn = context.secondColumn;
+        }
 
-        // Allocate space for the data tables. We need maxProfit + 1 rows here
-        // because profits should run from 0 to maxProfit (incl)
-        minKnapsacks = new int[itemGroups.length][maxProfit + 1];
+        if (weightIndexed) {
+            initWeightIndexed();
+        } else {
+            initProfitIndexed();
+        }
+    }
 
+    /**
+     * Initializes the first column of a profit-indexed table.
+     */
+    private void initProfitIndexed() {
         // We initialize the first column to IMPOSSIBLE and then check which items from the first
-        // group might constitute a valid knapsack (note that there is no need to initialize the
-        // table's first row since a zero-profit knapsack is always possible by not putting any
-        // item into it)
+        // group might constitute a valid knapsack (a zero-profit knapsack is always possible by
+        // not putting any item into it)
+        previousColumn[0] = 0;
         for (int p = 1; p <= maxProfit; p++) {
-            minKnapsacks[0][p] = IMPOSSIBLE;
+            previousColumn[p] = IMPOSSIBLE;
         }
 
-        for (Item i : itemGroups[0].getItems()) {
-            int p = i.getProfit();
+        for (int j = items.groupStarts[firstGroup]; j < items.groupStarts[firstGroup + 1]; j++) {
+            int p = items.profits[j];
+            int w = items.weights[j];
             assert p <= maxProfit;
 
-            // Always take the lightest knapsack
-            if (i.getWeight() < minKnapsacks[0][p]) {
-                minKnapsacks[0][p] = i.getWeight();
+            // Always take the lightest knapsack, and forget about items that never fit
+            if (w <= capacity && w < previousColumn[p]) {
+                previousColumn[p] = w;
             }
         }
     }
 
     /**
-     * Computes the maximum profit possible. This is the sum over the maximum profit
-     * per item group.
-
-    private static int computeMaxProfit(ItemGroup[] itemGroups) {
-        int maxProfit = 0;
+     * Initializes the first column of a weight-indexed table.
+     */
+    private void initWeightIndexed() {
+        // Without any item, every capacity yields a profit of 0 (the column may be reused, so
+        // we cannot rely on it being zeroed). Each item of the first group then improves all
+        // capacities it fits into
+        for (int w = 0; w <= capacity; w++) {
+            previousColumn[w] = 0;
+        }
 
-        for (ItemGroup group : itemGroups) {
-            int maxProfitInGroup = 0;
+        for (int j = items.groupStarts[firstGroup]; j < items.groupStarts[firstGroup + 1]; j++) {
+            int itemProfit = items.profits[j];
 
-            for (Item item : group.getItems()) {
-                maxProfitInGroup = Math.max(maxProfitInGroup, item.getProfit());
+            for (int w = items.weights[j]; w <= capacity; w++) {
+                if (itemProfit > previousColumn[w]) {
+                    previousColumn[w] = itemProfit;
+                }
             }
-
-            maxProfit += maxProfitInGroup;
         }
-
-        return maxProfit;
     }
 
 
@@ -106,17 +471,19 @@ public class MultipleChoiceKnapsackSolver {
      * Computes and returns an optimal profit, that is, the maximum profit possible when packing
      * at most one item from each group and staying below the weight limit. If there is no admissible
      * packing, we return {@code 0}.
-
+     */
     private int pack() {
-        // Fill the table's columns
-        for (int i = 1; i < itemGroups.length; i++) {
-            fillColumn(i);
+        fillColumns();
+
+        // A weight-indexed column directly holds the best profit for our capacity
+        if (weightIndexed) {
+            return previousColumn[capacity];
         }
 
         // Find the best possible profit
         int profit = 0;
         for (int p = maxProfit; p >= 0; p--) {
-            if (minKnapsacks[itemGroups.length - 1][p] <= capacity) {
+            if (previousColumn[p] != IMPOSSIBLE && previousColumn[p] <= capacity) {
                 profit = p;
                 break;
             }
@@ -126,34 +493,143 @@ public class MultipleChoiceKnapsackSolver {
     }
 
     /**
-     * Fills column {@code i} of our data tables.
+     * Fills the table's columns, always keeping the last one in {@code previousColumn}.
+     */
+    private void fillColumns() {
+        for (int i = firstGroup + 1; i < endGroup; i++) {
+            fillColumn(i);
 
+            int[] filled = currentColumn;
+            currentColumn = previousColumn;
+            previousColumn = filled;
+        }
+    }
+
+    /**
+     * Fills {@code currentColumn} with column {@code i} of our table, based on column
+     * {@code i - 1} which is expected in {@code previousColumn}. Each row of the column only
+     * depends on the previous column, so large columns are split into row ranges that are
+     * filled in parallel if we have a pool.
+     */
     private void fillColumn(final int i) {
-        List<Item> items = itemGroups[i].getItems();
+        assert i > firstGroup;
 
+        if (pool == null || lastRow < parallelCutoff) {
+            fillRows(i, 0, lastRow);
+        } else {
+            pool.invoke(new ColumnFillTask(i, 0, lastRow));
+        }
+    }
+
+    /**
+     * Fills rows {@code from} to {@code to} (incl) of column {@code i}.
+     */
+    private void fillRows(final int i, final int from, final int to) {
         // Copy knapsacks from the previous column
-        assert i > 0;
-        for (int p = 1; p <= maxProfit; p++) {
-            minKnapsacks[i][p] = minKnapsacks[i - 1][p];
+        System.arraycopy(previousColumn, from, currentColumn, from, to - from + 1);
+
+        if (weightIndexed) {
+            fillWeightIndexedRows(i, from, to);
+        } else {
+            fillProfitIndexedRows(i, from, to);
         }
+    }
+
+    /**
+     * Fills rows {@code from} to {@code to} (incl) of column {@code i} of a profit-indexed table.
+     */
+    private void fillProfitIndexedRows(final int i, final int from, final int to) {
+        int[] profits = items.profits;
+        int[] weights = items.weights;
 
         // Iterate over our items and check whether we can pack better knapsacks
-        for (Item item : items) {
-            for (int p = item.getProfit(); p <= maxProfit; p++) {
-                // Check if there is a previous knapsack we could use as a base
-                int possibleBaseWeight = minKnapsacks[i-1][p - item.getProfit()];
+        for (int j = items.groupStarts[i]; j < items.groupStarts[i + 1]; j++) {
+            int itemProfit = profits[j];
+            int itemWeight = weights[j];
+
+            // Items that are heavier than the knapsack can never be packed
+            if (itemWeight > capacity) {
+                continue;
+            }
 
-                if (possibleBaseWeight != IMPOSSIBLE) {
+            for (int p = Math.max(from, itemProfit); p <= to; p++) {
+                // Check if there is a previous knapsack we could use as a base. Impossible
+                // knapsacks and knapsacks that would exceed the capacity fail this check, which
+                // also keeps the addition below from overflowing
+                int possibleBaseWeight = previousColumn[p - itemProfit];
+
+                if (possibleBaseWeight <= capacity - itemWeight) {
                     // The weight we could achieve by packing the item into a knapsack of
                     // the previous iteration
-                    int possibleWeight = minKnapsacks[i-1][p - item.getProfit()] + item.getWeight();
+                    int possibleWeight = possibleBaseWeight + itemWeight;
 
-                    if (possibleWeight < minKnapsacks[i][p]) {
-                        minKnapsacks[i][p] = possibleWeight;
+                    if (possibleWeight < currentColumn[p]) {
+                        currentColumn[p] = possibleWeight;
                     }
                 }
             }
         }
     }
-    */
+
+    /**
+     * Fills rows {@code from} to {@code to} (incl) of column {@code i} of a weight-indexed table.
+     */
+    private void fillWeightIndexedRows(final int i, final int from, final int to) {
+        int[] profits = items.profits;
+        int[] weights = items.weights;
+
+        // Iterate over our items and check whether packing them yields better knapsacks
+        for (int j = items.groupStarts[i]; j < items.groupStarts[i + 1]; j++) {
+            int itemProfit = profits[j];
+            int itemWeight = weights[j];
+
+            for (int w = Math.max(from, itemWeight); w <= to; w++) {
+                // Profits are never negative, so a negative sum has overflowed. It saturates, so
+                // that a profit beyond the range of an int is reported as Integer.MAX_VALUE,
+                // just like branch and bound does
+                int possibleProfit = previousColumn[w - itemWeight] + itemProfit;
+                if (possibleProfit < 0) {
+                    possibleProfit = Integer.MAX_VALUE;
+                }
+
+                if (possibleProfit > currentColumn[w]) {
+                    currentColumn[w] = possibleProfit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills a range of rows of a column, splitting it in halves until the ranges fall below
+     * our parallel cutoff.
+     */
+    private final class ColumnFillTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // The column to fill.
+        private final int column;
+        // First row to fill.
+        private final int from;
+        // Last row to fill (incl).
+        private final int to;
+
+        private ColumnFillTask(final int column, final int from, final int to) {
+            this.column = column;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < parallelCutoff) {
+                fillRows(column, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ColumnFillTask(column, from, middle),
+                        new ColumnFillTask(column, middle + 1, to));
+            }
+        }
+    }
+
 }
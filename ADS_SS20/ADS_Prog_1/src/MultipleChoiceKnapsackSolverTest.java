@@ -0,0 +1,281 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class MultipleChoiceKnapsackSolverTest {
+
+	private static final MultipleChoiceKnapsackSolver.Engine[] ENGINES =
+			MultipleChoiceKnapsackSolver.Engine.values();
+
+	@Test
+	public void testExample() {
+		ItemGroup[] itemGroups = {
+				group(new Item(3, 2), new Item(5, 4)),
+				group(new Item(4, 3), new Item(1, 1)),
+				group(new Item(6, 5)) };
+
+		// With a capacity of 5, packing 3 and 4 beats 5 and 1 as well as 6 alone
+		for (MultipleChoiceKnapsackSolver.Engine engine : ENGINES) {
+			assertEquals(0, MultipleChoiceKnapsackSolver.pack(itemGroups, 0, engine));
+			assertEquals(7, MultipleChoiceKnapsackSolver.pack(itemGroups, 5, engine));
+			assertEquals(15, MultipleChoiceKnapsackSolver.pack(itemGroups, 100, engine));
+		}
+
+		assertThrows(IllegalArgumentException.class,
+				() -> MultipleChoiceKnapsackSolver.pack(itemGroups, 5, null));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 3})
+	public void testRandomInstancesAgainstBruteForce(int seed) {
+		Random random = new Random(seed);
+
+		for (int round = 0; round < 300; round++) {
+			ItemGroup[] itemGroups = randomGroups(random, 1 + random.nextInt(6), 4,
+					1 + random.nextInt(40), 1 + random.nextInt(40));
+			int capacity = random.nextInt(80);
+			int expected = bruteForce(itemGroups, capacity);
+
+			for (MultipleChoiceKnapsackSolver.Engine engine : ENGINES) {
+				assertEquals(expected,
+						MultipleChoiceKnapsackSolver.pack(itemGroups, capacity, engine),
+						"Wrong profit for engine " + engine + ".");
+			}
+		}
+	}
+
+	@Test
+	public void testParallelSolver() {
+		Random random = new Random(4);
+
+		// A cutoff of one row splits even the smallest columns
+		try (ParallelMultipleChoiceKnapsackSolver solver =
+				new ParallelMultipleChoiceKnapsackSolver(2, 1)) {
+			for (int round = 0; round < 200; round++) {
+				ItemGroup[] itemGroups = randomGroups(random, 1 + random.nextInt(6), 4, 30, 30);
+				int capacity = random.nextInt(60);
+				int expected = bruteForce(itemGroups, capacity);
+
+				assertEquals(expected, solver.pack(itemGroups, capacity));
+				assertEquals(expected, solver.pack(itemGroups, capacity,
+						MultipleChoiceKnapsackSolver.Engine.WEIGHT_INDEXED));
+			}
+		}
+	}
+
+	@Test
+	public void testLargeProfits() {
+		// The sum of the profits doesn't fit an int, so only a weight-indexed table is possible
+		ItemGroup[] itemGroups = new ItemGroup[3];
+		for (int g = 0; g < itemGroups.length; g++) {
+			itemGroups[g] = group(new Item(1_000_000_000, 10 + g), new Item(5, 1));
+		}
+
+		for (MultipleChoiceKnapsackSolver.Engine engine : ENGINES) {
+			assertEquals(2_000_000_005, MultipleChoiceKnapsackSolver.pack(itemGroups, 25, engine));
+		}
+	}
+
+	@Test
+	public void testProfitBeyondIntRange() {
+		// Both items fit, but their profits add up to more than an int holds, which every
+		// engine reports as the largest int
+		ItemGroup[] itemGroups = {
+				group(new Item(Integer.MAX_VALUE - 10, 1)),
+				group(new Item(Integer.MAX_VALUE - 10, 1)) };
+
+		for (MultipleChoiceKnapsackSolver.Engine engine : ENGINES) {
+			assertEquals(Integer.MAX_VALUE, MultipleChoiceKnapsackSolver.pack(itemGroups, 2, engine),
+					"Wrong profit for engine " + engine + ".");
+		}
+		assertEquals(Integer.MAX_VALUE,
+				MultipleChoiceKnapsackSolver.packWithSelection(itemGroups, 2).getProfit());
+	}
+
+	@Test
+	public void testSelection() {
+		Random random = new Random(5);
+
+		for (int round = 0; round < 500; round++) {
+			ItemGroup[] itemGroups = randomGroups(random, 1 + random.nextInt(6), 4,
+					1 + random.nextInt(40), 1 + random.nextInt(40));
+			int capacity = random.nextInt(80);
+			KnapsackSelection selection = MultipleChoiceKnapsackSolver.packWithSelection(itemGroups,
+					capacity);
+
+			// The selection has to be optimal and consistent with the items it chose
+			assertEquals(bruteForce(itemGroups, capacity), selection.getProfit());
+			assertEquals(itemGroups.length, selection.getGroupCount());
+			int profit = 0;
+			int weight = 0;
+			for (int g = 0; g < itemGroups.length; g++) {
+				int chosen = selection.getChosenItem(g);
+				if (chosen != KnapsackSelection.NOTHING_CHOSEN) {
+					profit += itemGroups[g].getItems().get(chosen).getProfit();
+					weight += itemGroups[g].getItems().get(chosen).getWeight();
+				}
+			}
+			assertEquals(selection.getProfit(), profit);
+			assertEquals(selection.getWeight(), weight);
+			assertTrue(weight <= Math.max(0, capacity));
+		}
+
+		// The profit sum doesn't fit an int, so the capacity is divided between the halves
+		ItemGroup[] itemGroups = new ItemGroup[3];
+		for (int g = 0; g < itemGroups.length; g++) {
+			itemGroups[g] = group(new Item(1_000_000_000, 10 + g), new Item(5, 1));
+		}
+		assertEquals(2_000_000_005,
+				MultipleChoiceKnapsackSolver.packWithSelection(itemGroups, 25).getProfit());
+	}
+
+	@Test
+	public void testPackAllWithReusedContext() {
+		Random random = new Random(6);
+		List<ItemGroup[]> instances = new ArrayList<>();
+		int[] capacities = new int[100];
+		KnapsackSolverContext context = new KnapsackSolverContext();
+
+		for (int i = 0; i < capacities.length; i++) {
+			instances.add(randomGroups(random, 1 + random.nextInt(6), 4, 1 + random.nextInt(60),
+					1 + random.nextInt(60)));
+			capacities[i] = random.nextInt(120);
+		}
+
+		int[] profits = MultipleChoiceKnapsackSolver.packAll(instances, capacities);
+		for (int i = 0; i < capacities.length; i++) {
+			int expected = bruteForce(instances.get(i), capacities[i]);
+			assertEquals(expected, profits[i]);
+
+			// A context keeps columns left over from larger instances, which must not leak into
+			// smaller ones
+			assertEquals(expected, context.pack(instances.get(i), capacities[i]));
+			assertEquals(expected, context.pack(instances.get(i), capacities[i],
+					MultipleChoiceKnapsackSolver.Engine.WEIGHT_INDEXED));
+		}
+		assertTrue(context.getColumnSize() > 0);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> MultipleChoiceKnapsackSolver.packAll(instances, new int[1]));
+	}
+
+	@Test
+	public void testCapacityProfile() {
+		Random random = new Random(7);
+
+		for (int round = 0; round < 100; round++) {
+			ItemGroup[] itemGroups = randomGroups(random, 1 + random.nextInt(5), 4,
+					1 + random.nextInt(30), 1 + random.nextInt(30));
+			int maxCapacity = random.nextInt(60);
+			CapacityProfile profile = MultipleChoiceKnapsackSolver.profileCapacities(itemGroups,
+					maxCapacity);
+
+			assertEquals(maxCapacity, profile.getMaxCapacity());
+			for (int capacity = -1; capacity <= maxCapacity; capacity++) {
+				assertEquals(bruteForce(itemGroups, capacity), profile.profitAt(capacity));
+			}
+			assertThrows(IllegalArgumentException.class, () -> profile.profitAt(maxCapacity + 1));
+		}
+
+		// Queries for any capacity
+		ItemGroup[] itemGroups = { group(new Item(3, 2), new Item(5, 4)) };
+		CapacityProfile profile = MultipleChoiceKnapsackSolver.profileCapacities(itemGroups,
+				Integer.MAX_VALUE);
+		assertEquals(3, profile.profitAt(3));
+		assertEquals(5, profile.profitAt(Integer.MAX_VALUE));
+
+		// The profit sum doesn't fit an int, so there can't be a profit-indexed table
+		ItemGroup[] largeGroups = new ItemGroup[3];
+		for (int g = 0; g < largeGroups.length; g++) {
+			largeGroups[g] = group(new Item(1_000_000_000, 10 + g), new Item(5, 1));
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> MultipleChoiceKnapsackSolver.profileCapacities(largeGroups, 25));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 50, 90})
+	public void testApproximation(int percent) {
+		double epsilon = percent / 100.0;
+		Random random = new Random(percent);
+
+		for (int round = 0; round < 200; round++) {
+			ItemGroup[] itemGroups = randomGroups(random, 1 + random.nextInt(6), 4,
+					1 + random.nextInt(100_000), 1 + random.nextInt(40));
+			int capacity = random.nextInt(80);
+			int optimum = bruteForce(itemGroups, capacity);
+			ApproximateKnapsackResult result = MultipleChoiceKnapsackSolver.pack(itemGroups,
+					capacity, epsilon);
+
+			assertTrue(result.getProfit() <= optimum, "The profit found exceeds the optimum.");
+			assertTrue(result.getProfit() >= (1 - epsilon) * optimum,
+					"The profit found is not (1 - epsilon)-optimal.");
+			assertTrue(result.getUpperBound() >= optimum, "The upper bound is below the optimum.");
+		}
+
+		assertThrows(IllegalArgumentException.class,
+				() -> MultipleChoiceKnapsackSolver.pack(new ItemGroup[0], 1, 1.0));
+	}
+
+	/**
+	 * Creates a group of the given items.
+	 */
+	static ItemGroup group(Item... items) {
+		return new ItemGroup(new ArrayList<>(Arrays.asList(items)));
+	}
+
+	/**
+	 * Creates the given number of groups of one to {@code maxItems} random items each.
+	 */
+	static ItemGroup[] randomGroups(Random random, int groupCount, int maxItems, int maxProfit,
+			int maxWeight) {
+		ItemGroup[] itemGroups = new ItemGroup[groupCount];
+
+		for (int g = 0; g < groupCount; g++) {
+			List<Item> items = new ArrayList<>();
+			for (int i = 1 + random.nextInt(maxItems); i > 0; i--) {
+				items.add(new Item(1 + random.nextInt(maxProfit), random.nextInt(maxWeight + 1)));
+			}
+			itemGroups[g] = new ItemGroup(items);
+		}
+
+		return itemGroups;
+	}
+
+	/**
+	 * Computes the optimal profit by trying all packings. Like the solver, packs nothing if there
+	 * is no capacity.
+	 */
+	static int bruteForce(ItemGroup[] itemGroups, int capacity) {
+		return capacity <= 0 ? 0 : bruteForce(itemGroups, 0, capacity);
+	}
+
+	/**
+	 * Computes the optimal profit of groups {@code group} (incl) onwards by trying all packings.
+	 */
+	private static int bruteForce(ItemGroup[] itemGroups, int group, int capacity) {
+		if (group == itemGroups.length) {
+			return 0;
+		}
+
+		int best = bruteForce(itemGroups, group + 1, capacity);
+		for (Item item : itemGroups[group].getItems()) {
+			if (item.getWeight() <= capacity) {
+				best = Math.max(best, item.getProfit()
+						+ bruteForce(itemGroups, group + 1, capacity - item.getWeight()));
+			}
+		}
+
+		return best;
+	}
+
+}
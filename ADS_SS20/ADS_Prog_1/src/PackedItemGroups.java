@@ -0,0 +1,174 @@
+import java.util.Arrays;
+
+/**
+ * A compact copy of a list of item groups. The profits and weights of all items are stored in
+ * two parallel arrays, group after group, and a third array tells where each group starts. This
+ * lets the solver's inner loops run over plain {@code int} arrays instead of following
+ * references to lists and {@link Item} objects.
+ *
+ * <p>A {@link KnapsackSolverContext} keeps one instance and refills it with
+ * {@link #packPruned(ItemGroup[], int)} for every instance it solves, so its arrays may be
+ * longer than the groups they currently hold.</p>
+ */
+public class PackedItemGroups {
+
+	/** Profit of each item, group after group. */
+	int[] profits;
+	/** Weight of each item, in the same order as {@link #profits}. */
+	int[] weights;
+	/**
+	 * Index of the first item of each group. Has at least one more entry than there are groups,
+	 * entry {@code getGroupCount()} being the total number of items, so group {@code g} spans
+	 * indices {@code groupStarts[g]} (incl) to {@code groupStarts[g + 1]} (excl).
+	 */
+	int[] groupStarts;
+	/** Number of groups. */
+	private int groupCount;
+	/** Weight and profit of the items of a group while they are sorted, see {@link #sortKey}. */
+	private long[] sortKeys = new long[0];
+
+	/**
+	 * Creates an instance without any groups, to be filled by
+	 * {@link #packPruned(ItemGroup[], int)}.
+	 */
+	PackedItemGroups() {
+		profits = new int[0];
+		weights = new int[0];
+		groupStarts = new int[1];
+	}
+
+	/**
+	 * Creates a packed copy of the given groups. Items keep their order within their group.
+	 *
+	 * @param itemGroups
+	 *            the groups to copy.
+	 */
+	public PackedItemGroups(final ItemGroup[] itemGroups) {
+		groupStarts = new int[itemGroups.length + 1];
+		for (int g = 0; g < itemGroups.length; g++) {
+			groupStarts[g + 1] = groupStarts[g] + itemGroups[g].getItems().size();
+		}
+
+		groupCount = itemGroups.length;
+		profits = new int[groupStarts[itemGroups.length]];
+		weights = new int[groupStarts[itemGroups.length]];
+		for (int g = 0; g < itemGroups.length; g++) {
+			int index = groupStarts[g];
+			for (Item item : itemGroups[g].getItems()) {
+				profits[index] = item.getProfit();
+				weights[index] = item.getWeight();
+				index++;
+			}
+		}
+	}
+
+	/**
+	 * Replaces the groups held by the given ones after pruning them like
+	 * {@link ItemGroupPruner#prune(ItemGroup[], int)}: only items that fit and are not dominated
+	 * are kept, sorted by weight, and groups that lose all of their items are left out. Unlike
+	 * the pruner, this creates no lists or items, and the arrays are only reallocated when they
+	 * are too small.
+	 *
+	 * @param itemGroups
+	 *            the groups to prune and copy.
+	 * @param capacity
+	 *            the maximum weight allowed for the knapsack.
+	 */
+	void packPruned(final ItemGroup[] itemGroups, final int capacity) {
+		int itemCount = 0;
+		int maxGroupSize = 0;
+		for (ItemGroup group : itemGroups) {
+			itemCount += group.getItems().size();
+			maxGroupSize = Math.max(maxGroupSize, group.getItems().size());
+		}
+
+		if (profits.length < itemCount) {
+			profits = new int[itemCount];
+			weights = new int[itemCount];
+		}
+		if (groupStarts.length < itemGroups.length + 1) {
+			groupStarts = new int[itemGroups.length + 1];
+		}
+		if (sortKeys.length < maxGroupSize) {
+			sortKeys = new long[maxGroupSize];
+		}
+
+		groupCount = 0;
+		int index = 0;
+		for (ItemGroup group : itemGroups) {
+			// Sort the items that fit by ascending weight and, among equally heavy ones, by
+			// descending profit
+			int fitting = 0;
+			for (Item item : group.getItems()) {
+				if (item.getWeight() <= capacity) {
+					sortKeys[fitting++] = sortKey(item.getProfit(), item.getWeight());
+				}
+			}
+			Arrays.sort(sortKeys, 0, fitting);
+
+			// Going by increasing weight, an item is only worth keeping if it beats the profit
+			// of all lighter items
+			int groupStart = index;
+			int bestProfit = 0;
+			for (int j = 0; j < fitting; j++) {
+				int profit = Integer.MAX_VALUE - (int) sortKeys[j];
+				if (profit > bestProfit) {
+					profits[index] = profit;
+					weights[index] = (int) (sortKeys[j] >>> 32);
+					bestProfit = profit;
+					index++;
+				}
+			}
+
+			if (index > groupStart) {
+				groupStarts[groupCount++] = groupStart;
+			}
+		}
+		groupStarts[groupCount] = index;
+	}
+
+	/**
+	 * Returns the number of groups.
+	 */
+	public int getGroupCount() {
+		return groupCount;
+	}
+
+	/**
+	 * Returns the number of items in all groups.
+	 */
+	public int getItemCount() {
+		return groupStarts[groupCount];
+	}
+
+	/**
+	 * Returns the sum over the maximum profit per group, for groups {@code from} (incl) to
+	 * {@code to} (excl). No packing of these groups can make more profit. The sum is a
+	 * {@code long}, as it can exceed the range of an {@code int} even though each profit fits.
+	 */
+	public long computeMaxProfit(final int from, final int to) {
+		long maxProfit = 0;
+
+		for (int g = from; g < to; g++) {
+			int maxProfitInGroup = 0;
+
+			for (int j = groupStarts[g]; j < groupStarts[g + 1]; j++) {
+				maxProfitInGroup = Math.max(maxProfitInGroup, profits[j]);
+			}
+
+			maxProfit += maxProfitInGroup;
+		}
+
+		return maxProfit;
+	}
+
+	/**
+	 * Combines an item's weight and profit into a number that sorts like the pruner sorts
+	 * items: by ascending weight first and by descending profit second. Both must not be
+	 * negative.
+	 */
+	private static long sortKey(final int profit, final int weight) {
+		return (long) weight << 32 | (Integer.MAX_VALUE - profit);
+	}
+
+}
@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PackedItemGroupsTest {
+
+	@Test
+	public void testLayout() {
+		ItemGroup[] itemGroups = {
+				MultipleChoiceKnapsackSolverTest.group(new Item(3, 2), new Item(5, 4)),
+				MultipleChoiceKnapsackSolverTest.group(new Item(4, 3)),
+				MultipleChoiceKnapsackSolverTest.group(new Item(6, 5), new Item(1, 1),
+						new Item(2, 0)) };
+
+		PackedItemGroups items = new PackedItemGroups(itemGroups);
+		assertEquals(3, items.getGroupCount());
+		assertEquals(6, items.getItemCount());
+		assertArrayEquals(new int[] {0, 2, 3, 6}, items.groupStarts);
+		assertArrayEquals(new int[] {3, 5, 4, 6, 1, 2}, items.profits);
+		assertArrayEquals(new int[] {2, 4, 3, 5, 1, 0}, items.weights);
+
+		assertEquals(15, items.computeMaxProfit(0, 3));
+		assertEquals(10, items.computeMaxProfit(1, 3));
+		assertEquals(0, items.computeMaxProfit(2, 2));
+	}
+
+	@Test
+	public void testMaxProfitBeyondIntRange() {
+		ItemGroup[] itemGroups = new ItemGroup[3];
+		for (int g = 0; g < itemGroups.length; g++) {
+			itemGroups[g] = MultipleChoiceKnapsackSolverTest.group(new Item(Integer.MAX_VALUE, 1));
+		}
+
+		assertEquals(3L * Integer.MAX_VALUE,
+				new PackedItemGroups(itemGroups).computeMaxProfit(0, 3));
+	}
+
+	@Test
+	public void testPackPruned() {
+		Random random = new Random(9);
+		// One instance refilled again and again, with instances growing and shrinking
+		PackedItemGroups reused = new PackedItemGroups();
+
+		for (int round = 0; round < 500; round++) {
+			ItemGroup[] itemGroups = MultipleChoiceKnapsackSolverTest.randomGroups(random,
+					random.nextInt(8), 1 + random.nextInt(10), 1 + random.nextInt(20),
+					1 + random.nextInt(30));
+			int capacity = random.nextInt(40);
+
+			reused.packPruned(itemGroups, capacity);
+			PackedItemGroups expected = new PackedItemGroups(
+					ItemGroupPruner.prune(itemGroups, capacity).getItemGroups());
+
+			int groupCount = expected.getGroupCount();
+			int itemCount = expected.getItemCount();
+			assertEquals(groupCount, reused.getGroupCount());
+			assertEquals(itemCount, reused.getItemCount());
+			assertArrayEquals(expected.groupStarts,
+					Arrays.copyOf(reused.groupStarts, groupCount + 1));
+			assertArrayEquals(expected.profits, Arrays.copyOf(reused.profits, itemCount));
+			assertArrayEquals(expected.weights, Arrays.copyOf(reused.weights, itemCount));
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A multiple choice knapsack solver that fills the columns of its dynamic programming table on a
+ * {@link ForkJoinPool}. Each cell of a column only depends on the previous column, so a column
+ * can be split into row ranges that are filled concurrently. Columns with fewer rows than the
+ * sequential cutoff are filled on the calling thread, since splitting them would cost more than
+ * it gains.
+ *
+ * <p>Instances own a pool and should be closed once they are no longer needed. They can be used
+ * by several threads at once.</p>
+ */
+public class ParallelMultipleChoiceKnapsackSolver implements AutoCloseable {
+
+    /** Default number of rows below which column ranges are filled sequentially. */
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 1 << 14;
+
+    // The pool our columns are filled on.
+    private final ForkJoinPool pool;
+    // Number of rows below which a column range is filled sequentially.
+    private final int sequentialCutoff;
+
+    /**
+     * Creates a new solver that uses as many threads as there are processors and the
+     * {@link #DEFAULT_SEQUENTIAL_CUTOFF default sequential cutoff}.
+     */
+    public ParallelMultipleChoiceKnapsackSolver() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_SEQUENTIAL_CUTOFF);
+    }
+
+    /**
+     * Creates a new solver with the given parallelism level and sequential cutoff.
+     *
+     * @param parallelism
+     *            the number of threads to fill columns with {@code > 0}.
+     * @param sequentialCutoff
+     *            number of rows below which a column range is filled sequentially {@code > 0}.
+     * @throws IllegalArgumentException
+     *             if any of the two parameters is not positive.
+     */
+    public ParallelMultipleChoiceKnapsackSolver(final int parallelism, final int sequentialCutoff) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+
+        if (sequentialCutoff < 1) {
+            throw new IllegalArgumentException("sequentialCutoff must be positive.");
+        }
+
+        this.pool = new ForkJoinPool(parallelism);
+        this.sequentialCutoff = sequentialCutoff;
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem like
+     * {@link MultipleChoiceKnapsackSolver#pack(ItemGroup[], int)}, but fills large columns in
+     * parallel. The result is the same.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @return the maximum profit possible.
+     */
+    public int pack(final ItemGroup[] itemGroups, final int capacity) {
+        return pack(itemGroups, capacity, MultipleChoiceKnapsackSolver.Engine.AUTO);
+    }
+
+    /**
+     * Solves the multiple choice knapsack problem like
+     * {@link MultipleChoiceKnapsackSolver#pack(ItemGroup[], int, MultipleChoiceKnapsackSolver.Engine)},
+     * but fills large columns in parallel. The result is the same.
+     *
+     * @param itemGroups
+     *            list of non-empty item groups. All items have a profit {@code > 0.}
+     * @param capacity
+     *            the maximum weight allowed for the knapsack {@code >= 0}.
+     * @param engine
+     *            the engine to use.
+     * @return the maximum profit possible.
+     */
+    public int pack(final ItemGroup[] itemGroups, final int capacity,
+            final MultipleChoiceKnapsackSolver.Engine engine) {
+        return MultipleChoiceKnapsackSolver.pack(itemGroups, capacity, engine, pool,
+                sequentialCutoff, null);
+    }
+
+    /**
+     * Shuts down this solver's pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * The selection algorithm of {@link MedianSelector} for arrays of {@code double}s, ordered like
+ * {@link Double#compare(double, double)}: negative zero is lower than positive zero, and NaN is
+ * higher than everything else. Like {@link LongSelection}, it is a copy of the {@code int[]}
+ * code that works on the array directly. Nothing is allocated.
+ */
+final class DoubleSelection {
+
+    private DoubleSelection() {
+    }
+
+    /**
+     * The method "select" moves the element that would be at index {@code k} if the range
+     * {@code from} to {@code to} (incl) was sorted to index {@code k}. This is an introselect
+     * like {@link MedianSelector#select(int[], int, MedianSelector.Strategy)} with
+     * {@link MedianSelector.Strategy#QUICKSELECT}.
+     *
+     * @param numbers the field to search in.
+     * @param from    the first index of the range.
+     * @param to      the last index of the range.
+     * @param k       the index to find the element for.
+     * @return the element at index {@code k}.
+     */
+    static double select(double[] numbers, int from, int to, int k) {
+        //whether the previous pivot was bad, so that this one must be the median of medians.
+        boolean badPivot = false;
+
+        while (to - from >= MedianSelector.SORT_CUTOFF) {
+            //pick a pivot.
+            int size = to - from + 1;
+            double pivot = badPivot
+                    ? medianOfMedians(numbers, from, to)
+                    : medianOfThree(numbers[from], numbers[(from + to) >>> 1], numbers[to]);
+
+            //split the range into elements lower than, equal to and higher than the pivot.
+            long bounds = partition(numbers, from, to, pivot);
+            int lowerEnd = (int) (bounds >>> 32);
+            int higherStart = (int) bounds;
+
+            //continue in the part that contains k.
+            if (k < lowerEnd) {
+                to = lowerEnd - 1;
+            } else if (k >= higherStart) {
+                from = higherStart;
+            } else {
+                return pivot;
+            }
+            badPivot = to - from + 1 > size - size / MedianSelector.BAD_PIVOT_SHARE;
+        }
+
+        insertionSort(numbers, from, to);
+        return numbers[k];
+    }
+
+    /**
+     * The method "medianOfMedians" splits the range into groups of five, moves the median of each
+     * group to the front of the range, and selects the median of these medians.
+     */
+    private static double medianOfMedians(double[] numbers, int from, int to) {
+        //index where the next group median is stored.
+        int medians = from;
+
+        for (int groupStart = from; groupStart <= to; groupStart += 5) {
+            //move the (lower) median of the group to the front; a last group with fewer than
+            //five elements is simply sorted.
+            if (groupStart + 4 <= to) {
+                swap(numbers, medians, medianOfFive(numbers, groupStart));
+            } else {
+                insertionSort(numbers, groupStart, to);
+                swap(numbers, medians, (groupStart + to) >>> 1);
+            }
+            medians += 1;
+        }
+
+        //select the lower median of the group medians.
+        return select(numbers, from, medians - 1, (from + medians - 1) >>> 1);
+    }
+
+    /**
+     * The method "medianOfFive" finds the median of the five elements starting at {@code start}
+     * with the network of {@link MedianSelector#medianOfFive(int[], int)}. The five elements are
+     * reordered.
+     *
+     * @return the index of the median.
+     */
+    private static int medianOfFive(double[] numbers, int start) {
+        int a = start;
+        int b = start + 1;
+        int c = start + 2;
+        int d = start + 3;
+        int e = start + 4;
+
+        //order the pairs (a, b) and (c, d), and the pairs by their lower element.
+        if (less(numbers[b], numbers[a])) {
+            swap(numbers, a, b);
+        }
+        if (less(numbers[d], numbers[c])) {
+            swap(numbers, c, d);
+        }
+        if (less(numbers[c], numbers[a])) {
+            swap(numbers, a, c);
+            swap(numbers, b, d);
+        }
+
+        //a is lower than b, c and d, so it cannot be the median. Replace it by e and repeat.
+        swap(numbers, a, e);
+        if (less(numbers[b], numbers[a])) {
+            swap(numbers, a, b);
+        }
+        if (less(numbers[c], numbers[a])) {
+            swap(numbers, a, c);
+            swap(numbers, b, d);
+        }
+
+        //the two elements at a and e are the lowest, so the median is the lower of b and c.
+        return less(numbers[b], numbers[c]) ? b : c;
+    }
+
+    /**
+     * Returns the median of three numbers.
+     */
+    private static double medianOfThree(double a, double b, double c) {
+        if (less(a, b)) {
+            return less(b, c) ? b : less(a, c) ? c : a;
+        } else {
+            return less(a, c) ? a : less(b, c) ? c : b;
+        }
+    }
+
+    /**
+     * The method "partition" reorders the range such that all elements lower than the pivot come
+     * first, followed by all elements equal to it, followed by all elements higher than it.
+     *
+     * @return the index of the first element equal to the pivot in the upper 32 bits, and the
+     * index of the first element higher than the pivot in the lower 32 bits.
+     */
+    private static long partition(double[] numbers, int from, int to, double pivot) {
+        //[from, lower) is lower, [lower, i) is equal, (higher, to] is higher than the pivot.
+        int lower = from;
+        int higher = to;
+        int i = from;
+
+        while (i <= higher) {
+            double current = numbers[i];
+
+            if (less(current, pivot)) {
+                numbers[i] = numbers[lower];
+                numbers[lower] = current;
+                lower += 1;
+                i += 1;
+            } else if (less(pivot, current)) {
+                numbers[i] = numbers[higher];
+                numbers[higher] = current;
+                higher -= 1;
+            } else {
+                i += 1;
+            }
+        }
+
+        return ((long) lower << 32) | (higher + 1);
+    }
+
+    /**
+     * Sorts the range {@code from} to {@code to} (incl) by insertion sort.
+     */
+    private static void insertionSort(double[] numbers, int from, int to) {
+        for (int i = from + 1; i <= to; i++) {
+            double current = numbers[i];
+            int j = i - 1;
+
+            //shift the higher elements to the right until the place for current is found.
+            while (j >= from && less(current, numbers[j])) {
+                numbers[j + 1] = numbers[j];
+                j -= 1;
+            }
+            numbers[j + 1] = current;
+        }
+    }
+
+    /**
+     * Swaps the elements at the two indices.
+     */
+    private static void swap(double[] numbers, int i1, int i2) {
+        double temp = numbers[i1];
+        numbers[i1] = numbers[i2];
+        numbers[i2] = temp;
+    }
+
+    /**
+     * Checks whether {@code a} is lower than {@code b} in the order of
+     * {@link Double#compare(double, double)}. Only if the two are equal or one of them is NaN
+     * does this take more than plain comparisons.
+     */
+    private static boolean less(double a, double b) {
+        return a < b || (!(a > b) && Double.compare(a, b) < 0);
+    }
+
+}
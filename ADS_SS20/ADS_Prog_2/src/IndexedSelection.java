@@ -0,0 +1,235 @@
+import java.util.Comparator;
+
+/**
+ * The selection algorithm of {@link MedianSelector}, written against a sequence that is only
+ * accessed through indices. Subclasses wrap an array and compare and swap its elements; the
+ * algorithm itself allocates no memory. Arrays of objects are selected from this way, since
+ * they are compared through a comparator anyway. Arrays of primitives have copies of the
+ * algorithm of their own, {@link LongSelection} and {@link DoubleSelection}, whose inner loops
+ * work on the array directly.
+ *
+ * <p>Like its {@code int[]} counterpart, this is an introselect with a median-of-three pivot
+ * that falls back to the median of medians after a bad pivot, and partitions three-way so that
+ * duplicates of the pivot are done with at once.</p>
+ */
+abstract class IndexedSelection {
+
+    /**
+     * Ranges with at most this many elements are sorted directly instead of being partitioned.
+     */
+    private static final int SORT_CUTOFF = 16;
+
+    /**
+     * Compares the elements at the two indices.
+     */
+    abstract int compare(int i1, int i2);
+
+    /**
+     * Remembers the element at the given index as the pivot, which stays the same while the
+     * elements are moved around.
+     */
+    abstract void setPivot(int i);
+
+    /**
+     * Compares the element at the given index to the pivot.
+     */
+    abstract int compareToPivot(int i);
+
+    /**
+     * Swaps the elements at the two indices.
+     */
+    abstract void swap(int i1, int i2);
+
+    /**
+     * Moves the element that would be at index {@code k} if the range {@code from} to {@code to}
+     * (incl) was sorted to index {@code k}.
+     */
+    final void select(int from, int to, int k) {
+        //whether the previous pivot was bad, so that this one must be the median of medians.
+        boolean badPivot = false;
+
+        while (to - from >= SORT_CUTOFF) {
+            //pick a pivot.
+            int size = to - from + 1;
+            setPivot(badPivot
+                    ? medianOfMedians(from, to)
+                    : medianOfThree(from, (from + to) >>> 1, to));
+
+            //split the range into elements lower than, equal to and higher than the pivot.
+            long bounds = partition(from, to);
+            int lowerEnd = (int) (bounds >>> 32);
+            int higherStart = (int) bounds;
+
+            //continue in the part that contains k.
+            if (k < lowerEnd) {
+                to = lowerEnd - 1;
+            } else if (k >= higherStart) {
+                from = higherStart;
+            } else {
+                return;
+            }
+            badPivot = to - from + 1 > size - size / MedianSelector.BAD_PIVOT_SHARE;
+        }
+
+        insertionSort(from, to);
+    }
+
+    /**
+     * Moves the median of each group of five to the front of the range, selects the median of
+     * these medians and returns its index.
+     */
+    private int medianOfMedians(int from, int to) {
+        //index where the next group median is stored.
+        int medians = from;
+
+        for (int groupStart = from; groupStart <= to; groupStart += 5) {
+            //move the (lower) median of the group to the front; a last group with fewer than
+            //five elements is simply sorted.
+            if (groupStart + 4 <= to) {
+                swap(medians, medianOfFive(groupStart));
+            } else {
+                insertionSort(groupStart, to);
+                swap(medians, (groupStart + to) >>> 1);
+            }
+            medians += 1;
+        }
+
+        //select the lower median of the group medians.
+        int median = (from + medians - 1) >>> 1;
+        select(from, medians - 1, median);
+        return median;
+    }
+
+    /**
+     * Returns the index of the median of the five elements starting at {@code start}, with the
+     * same network of six comparisons as {@link MedianSelector#medianOfFive(int[], int)}. The
+     * five elements are reordered.
+     */
+    private int medianOfFive(int start) {
+        int a = start;
+        int b = start + 1;
+        int c = start + 2;
+        int d = start + 3;
+        int e = start + 4;
+
+        //order the pairs (a, b) and (c, d), and the pairs by their lower element.
+        if (compare(a, b) > 0) {
+            swap(a, b);
+        }
+        if (compare(c, d) > 0) {
+            swap(c, d);
+        }
+        if (compare(a, c) > 0) {
+            swap(a, c);
+            swap(b, d);
+        }
+
+        //a is lower than b, c and d, so it cannot be the median. Replace it by e and repeat.
+        swap(a, e);
+        if (compare(a, b) > 0) {
+            swap(a, b);
+        }
+        if (compare(a, c) > 0) {
+            swap(a, c);
+            swap(b, d);
+        }
+
+        //the two elements at a and e are the lowest, so the median is the lower of b and c.
+        return compare(b, c) < 0 ? b : c;
+    }
+
+    /**
+     * Returns the index of the median of the elements at three indices.
+     */
+    private int medianOfThree(int a, int b, int c) {
+        if (compare(a, b) < 0) {
+            return compare(b, c) < 0 ? b : compare(a, c) < 0 ? c : a;
+        } else {
+            return compare(a, c) < 0 ? a : compare(b, c) < 0 ? c : b;
+        }
+    }
+
+    /**
+     * Reorders the range such that all elements lower than the pivot come first, followed by all
+     * elements equal to it, followed by all elements higher than it.
+     *
+     * @return the index of the first element equal to the pivot in the upper 32 bits, and the
+     * index of the first element higher than the pivot in the lower 32 bits.
+     */
+    private long partition(int from, int to) {
+        //[from, lower) is lower, [lower, i) is equal, (higher, to] is higher than the pivot.
+        int lower = from;
+        int higher = to;
+        int i = from;
+
+        while (i <= higher) {
+            int comparison = compareToPivot(i);
+
+            if (comparison < 0) {
+                swap(i, lower);
+                lower += 1;
+                i += 1;
+            } else if (comparison > 0) {
+                swap(i, higher);
+                higher -= 1;
+            } else {
+                i += 1;
+            }
+        }
+
+        return ((long) lower << 32) | (higher + 1);
+    }
+
+    /**
+     * Sorts the range {@code from} to {@code to} (incl) by insertion sort.
+     */
+    private void insertionSort(int from, int to) {
+        for (int i = from + 1; i <= to; i++) {
+            for (int j = i; j > from && compare(j - 1, j) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Arrays
+
+    /**
+     * Selection over an array of objects, ordered by a comparator.
+     */
+    static final class ObjectArray<T> extends IndexedSelection {
+
+        private final T[] elements;
+        private final Comparator<? super T> comparator;
+        private T pivot;
+
+        ObjectArray(T[] elements, Comparator<? super T> comparator) {
+            this.elements = elements;
+            this.comparator = comparator;
+        }
+
+        @Override
+        int compare(int i1, int i2) {
+            return comparator.compare(elements[i1], elements[i2]);
+        }
+
+        @Override
+        void setPivot(int i) {
+            pivot = elements[i];
+        }
+
+        @Override
+        int compareToPivot(int i) {
+            return comparator.compare(elements[i], pivot);
+        }
+
+        @Override
+        void swap(int i1, int i2) {
+            T temp = elements[i1];
+            elements[i1] = elements[i2];
+            elements[i2] = temp;
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/**
+ * The selection algorithm of {@link MedianSelector} for arrays of {@code long}s. It is a copy of
+ * the {@code int[]} code with the element type changed, rather than a user of
+ * {@link IndexedSelection}, so that the comparisons and swaps of the inner loops work on the
+ * array directly instead of going through virtual calls. Nothing is allocated.
+ */
+final class LongSelection {
+
+    private LongSelection() {
+    }
+
+    /**
+     * The method "select" moves the element that would be at index {@code k} if the range
+     * {@code from} to {@code to} (incl) was sorted to index {@code k}. This is an introselect
+     * like {@link MedianSelector#select(int[], int, MedianSelector.Strategy)} with
+     * {@link MedianSelector.Strategy#QUICKSELECT}.
+     *
+     * @param numbers the field to search in.
+     * @param from    the first index of the range.
+     * @param to      the last index of the range.
+     * @param k       the index to find the element for.
+     * @return the element at index {@code k}.
+     */
+    static long select(long[] numbers, int from, int to, int k) {
+        //whether the previous pivot was bad, so that this one must be the median of medians.
+        boolean badPivot = false;
+
+        while (to - from >= MedianSelector.SORT_CUTOFF) {
+            //pick a pivot.
+            int size = to - from + 1;
+            long pivot = badPivot
+                    ? medianOfMedians(numbers, from, to)
+                    : medianOfThree(numbers[from], numbers[(from + to) >>> 1], numbers[to]);
+
+            //split the range into elements lower than, equal to and higher than the pivot.
+            long bounds = partition(numbers, from, to, pivot);
+            int lowerEnd = (int) (bounds >>> 32);
+            int higherStart = (int) bounds;
+
+            //continue in the part that contains k.
+            if (k < lowerEnd) {
+                to = lowerEnd - 1;
+            } else if (k >= higherStart) {
+                from = higherStart;
+            } else {
+                return pivot;
+            }
+            badPivot = to - from + 1 > size - size / MedianSelector.BAD_PIVOT_SHARE;
+        }
+
+        insertionSort(numbers, from, to);
+        return numbers[k];
+    }
+
+    /**
+     * The method "medianOfMedians" splits the range into groups of five, moves the median of each
+     * group to the front of the range, and selects the median of these medians.
+     */
+    private static long medianOfMedians(long[] numbers, int from, int to) {
+        //index where the next group median is stored.
+        int medians = from;
+
+        for (int groupStart = from; groupStart <= to; groupStart += 5) {
+            //move the (lower) median of the group to the front; a last group with fewer than
+            //five elements is simply sorted.
+            if (groupStart + 4 <= to) {
+                swap(numbers, medians, medianOfFive(numbers, groupStart));
+            } else {
+                insertionSort(numbers, groupStart, to);
+                swap(numbers, medians, (groupStart + to) >>> 1);
+            }
+            medians += 1;
+        }
+
+        //select the lower median of the group medians.
+        return select(numbers, from, medians - 1, (from + medians - 1) >>> 1);
+    }
+
+    /**
+     * The method "medianOfFive" finds the median of the five elements starting at {@code start}
+     * with the network of {@link MedianSelector#medianOfFive(int[], int)}. The five elements are
+     * reordered.
+     *
+     * @return the index of the median.
+     */
+    private static int medianOfFive(long[] numbers, int start) {
+        int a = start;
+        int b = start + 1;
+        int c = start + 2;
+        int d = start + 3;
+        int e = start + 4;
+
+        //order the pairs (a, b) and (c, d), and the pairs by their lower element.
+        if (numbers[a] > numbers[b]) {
+            swap(numbers, a, b);
+        }
+        if (numbers[c] > numbers[d]) {
+            swap(numbers, c, d);
+        }
+        if (numbers[a] > numbers[c]) {
+            swap(numbers, a, c);
+            swap(numbers, b, d);
+        }
+
+        //a is lower than b, c and d, so it cannot be the median. Replace it by e and repeat.
+        swap(numbers, a, e);
+        if (numbers[a] > numbers[b]) {
+            swap(numbers, a, b);
+        }
+        if (numbers[a] > numbers[c]) {
+            swap(numbers, a, c);
+            swap(numbers, b, d);
+        }
+
+        //the two elements at a and e are the lowest, so the median is the lower of b and c.
+        return numbers[b] < numbers[c] ? b : c;
+    }
+
+    /**
+     * Returns the median of three numbers.
+     */
+    private static long medianOfThree(long a, long b, long c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        } else {
+            return a < c ? a : Math.max(b, c);
+        }
+    }
+
+    /**
+     * The method "partition" reorders the range such that all elements lower than the pivot come
+     * first, followed by all elements equal to it, followed by all elements higher than it.
+     *
+     * @return the index of the first element equal to the pivot in the upper 32 bits, and the
+     * index of the first element higher than the pivot in the lower 32 bits.
+     */
+    private static long partition(long[] numbers, int from, int to, long pivot) {
+        //[from, lower) is lower, [lower, i) is equal, (higher, to] is higher than the pivot.
+        int lower = from;
+        int higher = to;
+        int i = from;
+
+        while (i <= higher) {
+            long current = numbers[i];
+
+            if (current < pivot) {
+                numbers[i] = numbers[lower];
+                numbers[lower] = current;
+                lower += 1;
+                i += 1;
+            } else if (current > pivot) {
+                numbers[i] = numbers[higher];
+                numbers[higher] = current;
+                higher -= 1;
+            } else {
+                i += 1;
+            }
+        }
+
+        return ((long) lower << 32) | (higher + 1);
+    }
+
+    /**
+     * Sorts the range {@code from} to {@code to} (incl) by insertion sort.
+     */
+    private static void insertionSort(long[] numbers, int from, int to) {
+        for (int i = from + 1; i <= to; i++) {
+            long current = numbers[i];
+            int j = i - 1;
+
+            //shift the higher elements to the right until the place for current is found.
+            while (j >= from && numbers[j] > current) {
+                numbers[j + 1] = numbers[j];
+                j -= 1;
+            }
+            numbers[j + 1] = current;
+        }
+    }
+
+    /**
+     * Swaps the elements at the two indices.
+     */
+    private static void swap(long[] numbers, int i1, int i2) {
+        long temp = numbers[i1];
+        numbers[i1] = numbers[i2];
+        numbers[i2] = temp;
+    }
+
+}
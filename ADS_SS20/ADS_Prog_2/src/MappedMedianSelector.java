@@ -0,0 +1,220 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Selects medians (and other ranks) of files of 32-bit integers that are too large to be read
+ * into an array, by mapping them into memory chunk by chunk. Only a histogram and a small buffer
+ * live on the heap.
+ *
+ * <p>The first pass over the file counts the numbers by their upper 16 bits, which tells us the
+ * bucket the requested rank falls into and its rank within the bucket. If the bucket is small
+ * enough, the second pass collects its numbers and {@link MedianSelector} selects from them.
+ * Otherwise, the second pass counts the numbers of the bucket by their lower 16 bits, which
+ * determines the number exactly. Either way, the file is read twice, and the result is the same
+ * as that of {@link MedianSelector} on an array with the same numbers.</p>
+ */
+public class MappedMedianSelector {
+
+    /** Largest number of elements a bucket may have to be selected from on the heap. */
+    public static final int MAX_BUCKET_SIZE = 1 << 22;
+
+    //number of bytes we map at once, a multiple of four.
+    private static final long CHUNK_BYTES = 1L << 28;
+    //number of numbers we copy out of a mapped chunk at once.
+    private static final int BATCH_SIZE = 1 << 14;
+    //number of bits the buckets of each pass are made of.
+    private static final int BUCKET_BITS = 16;
+
+    /**
+     * Computes the lower median of the numbers in the given file, which are stored as 32-bit
+     * integers in big-endian byte order (as written by {@link java.io.DataOutputStream}).
+     *
+     * @param file the file with the numbers.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the file is empty or its size is not a multiple of four.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int lowerMedian(Path file) throws IOException {
+        return lowerMedian(file, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Computes the lower median of the numbers in the given file, which are stored as 32-bit
+     * integers in the given byte order.
+     *
+     * @param file  the file with the numbers.
+     * @param order the byte order of the numbers.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the file is empty or its size is not a multiple of four.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int lowerMedian(Path file, ByteOrder order) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long count = count(channel);
+            return select(channel, order, (count - 1) / 2, MAX_BUCKET_SIZE);
+        }
+    }
+
+    /**
+     * Computes the number that would be at the given index if the numbers in the given file
+     * were sorted. The numbers are stored as 32-bit integers in the given byte order.
+     *
+     * @param file  the file with the numbers.
+     * @param order the byte order of the numbers.
+     * @param rank  the rank to compute, from {@code 0} (the minimum) to the number of numbers
+     *              minus one (the maximum).
+     * @return the number of that rank.
+     * @throw IllegalArgumentException if the file is empty, its size is not a multiple of four, or
+     * the rank is out of range.
+     * @throws IOException if the file cannot be read.
+     */
+    public static int select(Path file, ByteOrder order, long rank) throws IOException {
+        return select(file, order, rank, MAX_BUCKET_SIZE);
+    }
+
+    /**
+     * Computes the number of the given rank like {@link #select(Path, ByteOrder, long)}, but
+     * selects from buckets on the heap only if they have at most {@code maxBucketSize}
+     * elements.
+     */
+    static int select(Path file, ByteOrder order, long rank, int maxBucketSize)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long count = count(channel);
+            if (rank < 0 || rank >= count) {
+                throw new IllegalArgumentException("rank must be between 0 and " + (count - 1));
+            }
+            return select(channel, order, rank, maxBucketSize);
+        }
+    }
+
+    /**
+     * Returns the number of numbers in the given channel.
+     */
+    private static long count(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0 || size % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("The file must contain at least one number, and "
+                    + "its size must be a multiple of " + Integer.BYTES + ".");
+        }
+        return size / Integer.BYTES;
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Selection
+
+    /**
+     * Selects the number of the given rank among the numbers of the channel.
+     */
+    private static int select(FileChannel channel, ByteOrder order, long rank, int maxBucketSize)
+            throws IOException {
+        //count the numbers by their upper bits and find the bucket the rank falls into. Flipping
+        //the sign bit makes the buckets ascend in the same order as the numbers.
+        long[] histogram = new long[1 << BUCKET_BITS];
+        forEachBatch(channel, order, (batch, length) -> {
+            for (int i = 0; i < length; i++) {
+                histogram[(batch[i] ^ Integer.MIN_VALUE) >>> BUCKET_BITS] += 1;
+            }
+        });
+        int upper = findBucket(histogram, rank);
+        long rankInBucket = rank - countBelow(histogram, upper);
+        long bucketSize = histogram[upper];
+
+        if (bucketSize <= maxBucketSize) {
+            //collect the bucket and select from it exactly.
+            int[] bucket = new int[(int) bucketSize];
+            int[] collected = {0};
+            forEachBatch(channel, order, (batch, length) -> {
+                for (int i = 0; i < length; i++) {
+                    if ((batch[i] ^ Integer.MIN_VALUE) >>> BUCKET_BITS == upper) {
+                        bucket[collected[0]++] = batch[i];
+                    }
+                }
+            });
+            return MedianSelector.selectInRange(bucket, 0, bucket.length - 1, (int) rankInBucket);
+        }
+
+        //the bucket is too large for the heap, so count its numbers by their lower bits, which
+        //determines the number we are looking for.
+        long[] lowerHistogram = new long[1 << BUCKET_BITS];
+        forEachBatch(channel, order, (batch, length) -> {
+            for (int i = 0; i < length; i++) {
+                int key = batch[i] ^ Integer.MIN_VALUE;
+                if (key >>> BUCKET_BITS == upper) {
+                    lowerHistogram[key & ((1 << BUCKET_BITS) - 1)] += 1;
+                }
+            }
+        });
+        int lower = findBucket(lowerHistogram, rankInBucket);
+        return ((upper << BUCKET_BITS) | lower) ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the bucket that contains the number of the given rank.
+     */
+    private static int findBucket(long[] histogram, long rank) {
+        long below = 0;
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            below += histogram[bucket];
+            if (below > rank) {
+                return bucket;
+            }
+        }
+        throw new IllegalStateException("The histogram has fewer elements than the rank.");
+    }
+
+    /**
+     * Returns the number of elements in all buckets below the given one.
+     */
+    private static long countBelow(long[] histogram, int bucket) {
+        long below = 0;
+        for (int b = 0; b < bucket; b++) {
+            below += histogram[b];
+        }
+        return below;
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Reading
+
+    /**
+     * Receives the numbers of a file batch by batch.
+     */
+    private interface BatchConsumer {
+
+        /**
+         * Processes the first {@code length} numbers of the batch.
+         */
+        void accept(int[] batch, int length);
+    }
+
+    /**
+     * Maps the channel chunk by chunk and hands all of its numbers to the consumer, in batches of
+     * at most {@link #BATCH_SIZE} numbers.
+     */
+    private static void forEachBatch(FileChannel channel, ByteOrder order, BatchConsumer consumer)
+            throws IOException {
+        long size = channel.size();
+        int[] batch = new int[BATCH_SIZE];
+
+        for (long position = 0; position < size; position += CHUNK_BYTES) {
+            long chunkSize = Math.min(CHUNK_BYTES, size - position);
+            IntBuffer numbers = channel.map(FileChannel.MapMode.READ_ONLY, position, chunkSize)
+                    .order(order)
+                    .asIntBuffer();
+
+            while (numbers.hasRemaining()) {
+                int length = Math.min(BATCH_SIZE, numbers.remaining());
+                numbers.get(batch, 0, length);
+                consumer.accept(batch, length);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class MappedMedianSelectorTest {
+	
+	@Test
+	public void testInvalidInput() throws IOException {
+		Path empty = writeFile(new int[0], ByteOrder.BIG_ENDIAN);
+		try {
+			assertThrows(
+					IllegalArgumentException.class,
+					() -> MappedMedianSelector.lowerMedian(empty),
+					"The selector doesn't throw the expected exception for an empty file.");
+		} finally {
+			Files.delete(empty);
+		}
+		
+		Path numbers = writeFile(new int[] {1, 2, 3}, ByteOrder.BIG_ENDIAN);
+		try {
+			assertThrows(
+					IllegalArgumentException.class,
+					() -> MappedMedianSelector.select(numbers, ByteOrder.BIG_ENDIAN, 3),
+					"The selector doesn't throw the expected exception for a rank out of range.");
+		} finally {
+			Files.delete(numbers);
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 20, 1001, 250000})
+	public void testRandomFileOfLength(int length) throws IOException {
+		Random random = new Random(length);
+		int[] data = new int[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = random.nextInt();
+		}
+		performTests(data);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1000, 1001, 250000})
+	public void testManyDuplicatesOfLength(int length) throws IOException {
+		Random random = new Random(length);
+		int[] data = new int[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = random.nextInt(100) - 50;
+		}
+		performTests(data);
+	}
+	
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	// Actual Test Running
+
+	/**
+	 * Writes the data to files in both byte orders and compares what the selector finds in them
+	 * to {@link MedianSelector}, both with buckets selected from on the heap and with buckets
+	 * that are too large for that.
+	 */
+	private void performTests(int[] data) throws IOException {
+		int[] sorted = Arrays.copyOf(data, data.length);
+		Arrays.sort(sorted);
+		int median = MedianSelector.lowerMedian(Arrays.copyOf(data, data.length));
+		
+		for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+			Path file = writeFile(data, order);
+			try {
+				if (order == ByteOrder.BIG_ENDIAN) {
+					assertEquals(median, MappedMedianSelector.lowerMedian(file),
+							"Lower median is incorrect for a file with " + data.length + " numbers.");
+				}
+				
+				for (int rank : new int[] {0, (data.length - 1) / 2, data.length / 3, data.length - 1}) {
+					for (int maxBucketSize : new int[] {0, MappedMedianSelector.MAX_BUCKET_SIZE}) {
+						assertEquals(sorted[rank], MappedMedianSelector.select(file, order, rank, maxBucketSize),
+								"Element of rank " + rank + " is incorrect for a file with " + data.length
+										+ " numbers in " + order + " byte order.");
+					}
+				}
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the numbers to a temporary file in the given byte order.
+	 */
+	private static Path writeFile(int[] data, ByteOrder order) throws IOException {
+		Path file = Files.createTempFile("numbers", ".bin");
+		ByteBuffer bytes = ByteBuffer.allocate(data.length * Integer.BYTES).order(order);
+		bytes.asIntBuffer().put(data);
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		}
+		return file;
+	}
+
+}
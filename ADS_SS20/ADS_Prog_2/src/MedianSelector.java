@@ -1,12 +1,69 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 
 public class MedianSelector {
 
     /**
-     * Computes and retrieves the lower median of the given array of pairwise
-     * distinct numbers using the Median algorithm presented in the lecture.
+     * The ways an element of a given rank can be selected. All of them yield the same element.
+     */
+    public enum Strategy {
+        /**
+         * Uses a histogram if the array is large and its values lie in a small range, and
+         * quickselect otherwise. Finding out the range takes an extra pass over large arrays, and
+         * the histogram allocates memory, so this is not the default of
+         * {@link MedianSelector#lowerMedian(int[])}.
+         */
+        AUTO,
+        /**
+         * Quickselect with a median-of-three pivot, which falls back to the median of medians if
+         * it does not make enough progress. Fast on most inputs and linear in the worst case.
+         */
+        QUICKSELECT,
+        /**
+         * Always pivots around the median of medians. Linear, but slower than quickselect on
+         * most inputs.
+         */
+        MEDIAN_OF_MEDIANS,
+        /**
+         * Counts how often each value occurs between the minimum and the maximum, and finds the
+         * rank in these counts. Takes two linear passes without any comparisons, but needs memory
+         * proportional to the range of the values, which must not exceed
+         * {@link #MAX_HISTOGRAM_RANGE}. The array is left unchanged.
+         */
+        HISTOGRAM
+    }
+
+    /**
+     * Largest number of distinct values (maximum minus minimum plus one) a histogram may cover.
+     */
+    public static final int MAX_HISTOGRAM_RANGE = 1 << 20;
+
+    /**
+     * Ranges with at most this many elements are sorted directly instead of being partitioned.
+     */
+    static final int SORT_CUTOFF = 16;
+
+    /**
+     * A pivot is bad if it discards less than this share of the range, that is, less than a
+     * sixteenth. After a bad pivot, the next one is the median of medians, which discards at
+     * least 30%, so the range keeps shrinking by a constant factor.
+     */
+    static final int BAD_PIVOT_SHARE = 16;
+
+    /**
+     * Smallest array for which {@link Strategy#AUTO} considers a histogram. For smaller arrays,
+     * finding out the range of the values costs more than a histogram could gain.
+     */
+    private static final int HISTOGRAM_MIN_LENGTH = 1 << 10;
+
+    /**
+     * Computes and retrieves the lower median of the given array of numbers. The numbers are
+     * selected in place: the array is reordered, but no memory is allocated. To use a histogram
+     * if the array is large and its values lie in a small range, pass {@link Strategy#AUTO} to
+     * {@link #lowerMedian(int[], Strategy)}.
      *
-     * @param numbers array with pairwise distinct numbers.
+     * @param numbers array with numbers.
      * @return the lower median.
      * @throw IllegalArgumentException if the array is {@code null} or empty.
      */
@@ -24,112 +81,532 @@ public class MedianSelector {
         return getMedian(numbers, (numbers.length + 1) / 2);
     }
 
+    /**
+     * Computes the lower median of the given array of numbers with the given strategy.
+     *
+     * @param numbers  array with numbers.
+     * @param strategy the way to select the median.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the array or the strategy is {@code null}, if the array
+     * is empty, or if the strategy is {@link Strategy#HISTOGRAM} and the range of the numbers is
+     * too large.
+     */
+    public static int lowerMedian(int[] numbers, Strategy strategy) {
+        if (numbers == null || numbers.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        return select(numbers, (numbers.length - 1) / 2, strategy);
+    }
 
     /**
-     * The method "getMedian" calculates the value of the given median.
+     * Computes the lower median of the given array of numbers, all of which lie in the given
+     * range, with a histogram. Knowing the range saves the pass that would find it out.
      *
-     * @param numbers   the field to sort in.
-     * @param medianPos the position of the field
-     * @return the value of the median
+     * @param numbers  array with numbers.
+     * @param minValue no number is lower than this.
+     * @param maxValue no number is higher than this.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the array is {@code null} or empty, if the range is
+     * larger than {@link #MAX_HISTOGRAM_RANGE}, or if a number lies outside of the range.
      */
-    public static int getMedian(int[] numbers, int medianPos) {
-        // check if the given field is part of divided fields of length 5.
-        if (numbers.length > 5) {
-            //amount of fields of size five in the whole field.
-            int numberOfFields = 0;
-
-            // calculated numbers of fields to create.
-            if (numbers.length % 5 != 0) {
-                numberOfFields = (numbers.length / 5) + 1;
-            } else {
-                numberOfFields = (numbers.length / 5);
-            }
+    public static int lowerMedian(int[] numbers, int minValue, int maxValue) {
+        if (numbers == null || numbers.length == 0) {
+            throw new IllegalArgumentException();
+        }
 
-            // field for the medians.
-            int[] medianOfMedians = new int[numberOfFields];
-            // field for the groups.
-            int[] five = new int[5];
-            // field for the rest numbers.
-            int[] rest = new int[numbers.length % 5];
-            // index for filling medianOfMedians field.
-            int indexMediansOfMedians = 0;
-            // index for the five field.
-            int indexGroups = 0;
-
-            // split numbers field into groups of five.
-            for (int i = 0; i < numbers.length; i++) {
-
-                if ((i % 5 == 0 && i != 0) || i == numbers.length - 1) {
-                    //case for the last element in the list because it has to be copied separately.
-                    if (i == numbers.length - 1 && rest.length == 0) {
-                        five[indexGroups] = numbers[i];
-                    }
+        if ((long) maxValue - minValue + 1 > MAX_HISTOGRAM_RANGE || maxValue < minValue) {
+            throw new IllegalArgumentException("The range must contain between 1 and "
+                    + MAX_HISTOGRAM_RANGE + " values.");
+        }
+        return histogramSelect(numbers, (numbers.length - 1) / 2, minValue, maxValue);
+    }
+
+    /**
+     * Computes the element that would be at the given index if the array was sorted, with the
+     * given strategy. Unless a histogram is used, the array is reordered in place.
+     *
+     * @param data     array with numbers.
+     * @param rank     the rank to compute, from {@code 0} (the minimum) to
+     *                 {@code data.length - 1} (the maximum).
+     * @param strategy the way to select the element.
+     * @return the element of that rank.
+     * @throw IllegalArgumentException if the array or the strategy is {@code null}, if the array
+     * is empty, if the rank is out of range, or if the strategy is {@link Strategy#HISTOGRAM} and
+     * the range of the numbers is too large.
+     */
+    public static int select(int[] data, int rank, Strategy strategy) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        if (strategy == null) {
+            throw new IllegalArgumentException("strategy cannot be null.");
+        }
 
-                    // save the median of the group in the field for medians of medians.
-                    medianOfMedians[indexMediansOfMedians] = lowerMedian(five);
-                    // raise the index of the Medians.
-                    indexMediansOfMedians += 1;
-                    // reset index of "five" because new group starts.
-                    indexGroups = 0;
-
-                    // case for the field of the rest elements lower than five.
-                    if ((numbers.length) - i == rest.length) {
-
-                        // fill the rest field separately
-                        for (int k = 0; k < rest.length; k++) {
-                            rest[k] = numbers[i];
-                            i += 1;
-                        }
-                        // save the median of the field rest.
-                        medianOfMedians[indexMediansOfMedians] = lowerMedian(rest);
-                    } else {
-                        // get the first element for the group because of the current i for the calculating step.
-                        five[indexGroups] = numbers[i];
-                        indexGroups += 1;
+        if (rank < 0 || rank >= data.length) {
+            throw new IllegalArgumentException("rank must be between 0 and " + (data.length - 1));
+        }
+
+        switch (strategy) {
+            case AUTO:
+                if (data.length >= HISTOGRAM_MIN_LENGTH) {
+                    //a histogram pays off if it is not larger than the array.
+                    long range = range(data);
+                    int minValue = (int) (range >> 32);
+                    int maxValue = (int) range;
+                    long values = (long) maxValue - minValue + 1;
+                    if (values <= data.length && values <= MAX_HISTOGRAM_RANGE) {
+                        return histogramSelect(data, rank, minValue, maxValue);
                     }
+                }
+                return selectInRange(data, 0, data.length - 1, rank);
+            case QUICKSELECT:
+                return selectInRange(data, 0, data.length - 1, rank);
+            case MEDIAN_OF_MEDIANS:
+                return selectInRange(data, 0, data.length - 1, rank, true);
+            case HISTOGRAM:
+                long range = range(data);
+                int minValue = (int) (range >> 32);
+                int maxValue = (int) range;
+                if ((long) maxValue - minValue + 1 > MAX_HISTOGRAM_RANGE) {
+                    throw new IllegalArgumentException("The numbers span more than "
+                            + MAX_HISTOGRAM_RANGE + " values.");
+                }
+                return histogramSelect(data, rank, minValue, maxValue);
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + strategy);
+        }
+    }
+
+    /**
+     * Computes the lower median of the given array of numbers like {@link #lowerMedian(int[])}.
+     * The numbers may contain duplicates. The array is reordered in place. (This is not an
+     * overload of {@code lowerMedian}, so that {@code lowerMedian(null)} stays unambiguous.)
+     *
+     * @param numbers array with numbers.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the array is {@code null} or empty.
+     */
+    public static long lowerMedianOfLongs(long[] numbers) {
+        if (numbers == null || numbers.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        return LongSelection.select(numbers, 0, numbers.length - 1, (numbers.length - 1) / 2);
+    }
+
+    /**
+     * Computes the lower median of the given array of numbers like {@link #lowerMedian(int[])},
+     * ordering them like {@link Double#compare(double, double)}: negative zero is lower than
+     * positive zero, and NaN is higher than everything else. The numbers may contain duplicates.
+     * The array is reordered in place.
+     *
+     * @param numbers array with numbers.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the array is {@code null} or empty.
+     */
+    public static double lowerMedianOfDoubles(double[] numbers) {
+        if (numbers == null || numbers.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        return DoubleSelection.select(numbers, 0, numbers.length - 1, (numbers.length - 1) / 2);
+    }
+
+    /**
+     * Computes the lower median of the given array of elements in the order of the given
+     * comparator. The elements may contain duplicates, that is, elements the comparator
+     * considers equal. The array is reordered in place.
+     *
+     * @param elements   array with elements.
+     * @param comparator the order of the elements.
+     * @param <T>        the type of the elements.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the array or the comparator is {@code null}, or if the
+     * array is empty.
+     */
+    public static <T> T lowerMedian(T[] elements, Comparator<? super T> comparator) {
+        if (elements == null || elements.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        if (comparator == null) {
+            throw new IllegalArgumentException("comparator cannot be null.");
+        }
+
+        int k = (elements.length - 1) / 2;
+        new IndexedSelection.ObjectArray<>(elements, comparator).select(0, elements.length - 1, k);
+        return elements[k];
+    }
+
+
+    /**
+     * The method "getMedian" calculates the value at the given position of the sorted field. The
+     * field is reordered in place.
+     *
+     * @param numbers   the field to search in.
+     * @param medianPos the position in the sorted field, starting at 1.
+     * @return the value at that position.
+     */
+    public static int getMedian(int[] numbers, int medianPos) {
+        return selectInRange(numbers, 0, numbers.length - 1, medianPos - 1);
+    }
+
+
+    /**
+     * Computes the elements at several ranks of the given array at once, that is, the elements
+     * that would be at these indices if the array was sorted. This is cheaper than selecting
+     * each rank separately: the array is partitioned once, and each part is only searched
+     * further if it contains a requested rank, which takes {@code O(n log q)} time for
+     * {@code q} ranks instead of {@code O(n q)}. The array is reordered in place.
+     *
+     * @param data  array with numbers.
+     * @param ranks the ranks to compute, from {@code 0} (the minimum) to {@code data.length - 1}
+     *              (the maximum), in any order.
+     * @return the element at each rank, in the order the ranks were given in.
+     * @throw IllegalArgumentException if the array is {@code null} or empty, or if a rank is out
+     * of range.
+     */
+    public static int[] select(int[] data, int... ranks) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        //sort the ranks so that each part of the array gets a contiguous range of them.
+        int[] sortedRanks = Arrays.copyOf(ranks, ranks.length);
+        Arrays.sort(sortedRanks);
+        if (sortedRanks.length > 0
+                && (sortedRanks[0] < 0 || sortedRanks[sortedRanks.length - 1] >= data.length)) {
+            throw new IllegalArgumentException("ranks must be between 0 and " + (data.length - 1));
+        }
+
+        selectAll(data, 0, data.length - 1, sortedRanks, 0, sortedRanks.length - 1, false);
+
+        //every requested index now holds the element of that rank.
+        int[] result = new int[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            result[i] = data[ranks[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Computes the elements at several quantiles of the given array at once, using the
+     * nearest-rank definition: the {@code q}-quantile of {@code n} numbers is the element of
+     * rank {@code ceil(q * n) - 1} (or the minimum for {@code q = 0}). The {@code 0.5}-quantile
+     * is thus the lower median. The array is reordered in place.
+     *
+     * @param data      array with numbers.
+     * @param quantiles the quantiles to compute, each between {@code 0} and {@code 1}.
+     * @return the element at each quantile, in the order the quantiles were given in.
+     * @throw IllegalArgumentException if the array is {@code null} or empty, or if a quantile is
+     * out of range.
+     * @see #select(int[], int...)
+     */
+    public static int[] quantiles(int[] data, double... quantiles) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int[] ranks = new int[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            ranks[i] = (int) quantileRank(quantiles[i], data.length);
+        }
+        return select(data, ranks);
+    }
+
+    /**
+     * Returns the rank of the given quantile among {@code n} numbers, using the nearest-rank
+     * definition.
+     *
+     * @throw IllegalArgumentException if the quantile is not between {@code 0} and {@code 1}.
+     */
+    static long quantileRank(double quantile, long n) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantiles must be between 0 and 1");
+        }
+        return Math.max(0, (long) Math.ceil(quantile * n) - 1);
+    }
+
+
+    /**
+     * The method "selectAll" moves the elements of all ranks {@code ranks[rankFrom]} to
+     * {@code ranks[rankTo]} (incl) to their index in the range {@code from} to {@code to} (incl).
+     * It partitions the range like {@link #selectInRange(int[], int, int, int)}, but keeps
+     * searching in every part that contains a requested rank.
+     *
+     * @param numbers     the field to search in.
+     * @param from        the first index of the range.
+     * @param to          the last index of the range.
+     * @param ranks       the sorted ranks to find the elements of.
+     * @param rankFrom    the first of the ranks that lie in the range.
+     * @param rankTo      the last of the ranks that lie in the range.
+     * @param badPivot    whether the previous pivot was bad, so that this one must be the median of
+     *                    medians.
+     */
+    private static void selectAll(int[] numbers, int from, int to, int[] ranks, int rankFrom,
+                                  int rankTo, boolean badPivot) {
+        while (rankFrom <= rankTo) {
+            //a single rank is just a normal selection.
+            if (rankFrom == rankTo || to - from < SORT_CUTOFF) {
+                if (rankFrom == rankTo) {
+                    selectInRange(numbers, from, to, ranks[rankFrom]);
                 } else {
-                    // copy the current element of numbers to group.
-                    five[indexGroups] = numbers[i];
-                    indexGroups += 1;
+                    insertionSort(numbers, from, to);
                 }
+                return;
             }
 
-            //save the median of medians.
-            int median = lowerMedian(medianOfMedians);
-            //the List of element lower than the median element.
-            ArrayList<Integer> L1 = createSplit(numbers, median, 0);
-            //the List of element higher than the median element.
-            ArrayList<Integer> L2 = createSplit(numbers, median, 1);
-            //the current position of the median
-            int k = L1.size() + 1;
-
-            //check if the current median element is already in the correct position.
-            if (medianPos == k) {
-                return median;
+            //pick a pivot.
+            int size = to - from + 1;
+            int pivot = badPivot
+                    ? medianOfMedians(numbers, from, to)
+                    : medianOfThree(numbers[from], numbers[(from + to) >>> 1], numbers[to]);
+
+            //split the range into elements lower than, equal to and higher than the pivot.
+            long bounds = partition(numbers, from, to, pivot);
+            int lowerEnd = (int) (bounds >>> 32);
+            int higherStart = (int) bounds;
+            int largerPart = Math.max(lowerEnd - from, to + 1 - higherStart);
+            badPivot = largerPart > size - size / BAD_PIVOT_SHARE;
+
+            //find the ranks that fall into the lower and the higher part.
+            int lowerRanksEnd = rankFrom;
+            while (lowerRanksEnd <= rankTo && ranks[lowerRanksEnd] < lowerEnd) {
+                lowerRanksEnd += 1;
+            }
+            int higherRanksStart = lowerRanksEnd;
+            while (higherRanksStart <= rankTo && ranks[higherRanksStart] < higherStart) {
+                higherRanksStart += 1;
+            }
+
+            //recurse into the lower part and continue with the higher part.
+            selectAll(numbers, from, lowerEnd - 1, ranks, rankFrom, lowerRanksEnd - 1, badPivot);
+            from = higherStart;
+            rankFrom = higherRanksStart;
+        }
+    }
+
+
+    /**
+     * The method "selectInRange" finds the element that would be at index {@code k} if the range
+     * {@code from} to {@code to} (incl) was sorted, and moves it there. This is an introselect: it
+     * is a quickselect with a median-of-three pivot, which is fast on most inputs. Whenever a
+     * pivot turns out bad, the next one is the median of medians, which guarantees a linear
+     * running time even on adversarial inputs. Partitioning is three-way, so elements equal to
+     * the pivot are done with at once.
+     *
+     * @param numbers the field to search in.
+     * @param from    the first index of the range.
+     * @param to      the last index of the range.
+     * @param k       the index to find the element for.
+     * @return the element at index {@code k}.
+     */
+    static int selectInRange(int[] numbers, int from, int to, int k) {
+        return selectInRange(numbers, from, to, k, false);
+    }
+
+    /**
+     * Like {@link #selectInRange(int[], int, int, int)}, but optionally always pivots around the
+     * median of medians.
+     */
+    private static int selectInRange(int[] numbers, int from, int to, int k,
+                                     boolean medianOfMediansOnly) {
+        boolean badPivot = medianOfMediansOnly;
+
+        while (to - from >= SORT_CUTOFF) {
+            //pick a pivot.
+            int size = to - from + 1;
+            int pivot = badPivot
+                    ? medianOfMedians(numbers, from, to)
+                    : medianOfThree(numbers[from], numbers[(from + to) >>> 1], numbers[to]);
+
+            //split the range into elements lower than, equal to and higher than the pivot.
+            long bounds = partition(numbers, from, to, pivot);
+            int lowerEnd = (int) (bounds >>> 32);
+            int higherStart = (int) bounds;
+
+            //continue in the part that contains k.
+            if (k < lowerEnd) {
+                to = lowerEnd - 1;
+            } else if (k >= higherStart) {
+                from = higherStart;
+            } else {
+                return pivot;
             }
-            //check if the current median element position is higher than the correct position and check the list of lower elements on the position of the median.
-            else if (medianPos < k) {
-                int[] numbers2 = convertIntegers(L1);
-                int x = getMedian(numbers2, medianPos);
-                return x;
+            badPivot = medianOfMediansOnly || to - from + 1 > size - size / BAD_PIVOT_SHARE;
+        }
+
+        insertionSort(numbers, from, to);
+        return numbers[k];
+    }
+
+
+    /**
+     * The method "histogramSelect" counts how often each value between {@code minValue} and
+     * {@code maxValue} (incl) occurs in the field and adds up these counts until they exceed
+     * {@code k}. The field is left unchanged.
+     *
+     * @param numbers  the field to search in.
+     * @param k        the rank to find the element of.
+     * @param minValue the lowest value of the range.
+     * @param maxValue the highest value of the range.
+     * @return the element of rank {@code k}.
+     * @throw IllegalArgumentException if a number lies outside of the range.
+     */
+    static int histogramSelect(int[] numbers, int k, int minValue, int maxValue) {
+        int[] counts = new int[maxValue - minValue + 1];
+        for (int number : numbers) {
+            if (number < minValue || number > maxValue) {
+                throw new IllegalArgumentException(number + " lies outside of the range from "
+                        + minValue + " to " + maxValue + ".");
             }
-            //check if the current median element position is lower than the correct position and check the list of lower elements on the position median  minus the current.
-            else if (medianPos > k) {
-                int[] numbers2 = convertIntegers(L2);
-                int x = getMedian(numbers2, medianPos - k);
-                return x;
+            counts[number - minValue] += 1;
+        }
+
+        int below = 0;
+        for (int value = 0; ; value++) {
+            below += counts[value];
+            if (below > k) {
+                return minValue + value;
             }
         }
-        // set the upper border for the field to sort
-        int borderUp = numbers.length;
-        // set the lower border for the field to sort
-        int borderDown = 0;
+    }
 
-        numbers = sort(numbers, borderDown, borderUp - 1);
-        return numbers[medianPos - 1];
+    /**
+     * Returns the minimum of the numbers in the upper 32 bits and their maximum in the lower
+     * 32 bits.
+     */
+    private static long range(int[] numbers) {
+        int min = numbers[0];
+        int max = numbers[0];
+        for (int number : numbers) {
+            min = Math.min(min, number);
+            max = Math.max(max, number);
+        }
+        return ((long) min << 32) | (max & 0xFFFFFFFFL);
     }
 
 
+    /**
+     * The method "medianOfMedians" splits the range into groups of five, moves the median of each
+     * group to the front of the range, and selects the median of these medians.
+     *
+     * @param numbers the field to search in.
+     * @param from    the first index of the range.
+     * @param to      the last index of the range.
+     * @return the median of medians.
+     */
+    private static int medianOfMedians(int[] numbers, int from, int to) {
+        //index where the next group median is stored.
+        int medians = from;
+
+        for (int groupStart = from; groupStart <= to; groupStart += 5) {
+            //move the (lower) median of the group to the front; a last group with fewer than
+            //five elements is simply sorted.
+            if (groupStart + 4 <= to) {
+                swap(numbers, medians, medianOfFive(numbers, groupStart));
+            } else {
+                insertionSort(numbers, groupStart, to);
+                swap(numbers, medians, (groupStart + to) >>> 1);
+            }
+            medians += 1;
+        }
+
+        //select the lower median of the group medians.
+        return selectInRange(numbers, from, medians - 1, (from + medians - 1) >>> 1);
+    }
+
+    /**
+     * The method "medianOfFive" finds the median of the five elements starting at {@code start}
+     * with six comparisons, the fewest possible, instead of the up to ten an insertion sort
+     * needs. The five elements are reordered.
+     *
+     * @param numbers the field to search in.
+     * @param start   the first index of the five elements.
+     * @return the index of the median.
+     */
+    static int medianOfFive(int[] numbers, int start) {
+        int a = start;
+        int b = start + 1;
+        int c = start + 2;
+        int d = start + 3;
+        int e = start + 4;
+
+        //order the pairs (a, b) and (c, d), and the pairs by their lower element.
+        if (numbers[a] > numbers[b]) {
+            swap(numbers, a, b);
+        }
+        if (numbers[c] > numbers[d]) {
+            swap(numbers, c, d);
+        }
+        if (numbers[a] > numbers[c]) {
+            swap(numbers, a, c);
+            swap(numbers, b, d);
+        }
+
+        //a is lower than b, c and d, so it cannot be the median. Replace it by e and repeat.
+        swap(numbers, a, e);
+        if (numbers[a] > numbers[b]) {
+            swap(numbers, a, b);
+        }
+        if (numbers[a] > numbers[c]) {
+            swap(numbers, a, c);
+            swap(numbers, b, d);
+        }
+
+        //the two elements at a and e are the lowest, so the median is the lower of b and c.
+        return numbers[b] < numbers[c] ? b : c;
+    }
+
+    /**
+     * Returns the median of three numbers.
+     */
+    private static int medianOfThree(int a, int b, int c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        } else {
+            return a < c ? a : Math.max(b, c);
+        }
+    }
+
+    /**
+     * The method "partition" reorders the range such that all elements lower than the pivot come
+     * first, followed by all elements equal to it, followed by all elements higher than it.
+     *
+     * @param numbers the field to partition.
+     * @param from    the first index of the range.
+     * @param to      the last index of the range.
+     * @param pivot   the value to partition around.
+     * @return the index of the first element equal to the pivot in the upper 32 bits, and the
+     * index of the first element higher than the pivot in the lower 32 bits.
+     */
+    static long partition(int[] numbers, int from, int to, int pivot) {
+        //[from, lower) is lower, [lower, i) is equal, (higher, to] is higher than the pivot.
+        int lower = from;
+        int higher = to;
+        int i = from;
+
+        while (i <= higher) {
+            int current = numbers[i];
+
+            if (current < pivot) {
+                numbers[i] = numbers[lower];
+                numbers[lower] = current;
+                lower += 1;
+                i += 1;
+            } else if (current > pivot) {
+                numbers[i] = numbers[higher];
+                numbers[higher] = current;
+                higher -= 1;
+            } else {
+                i += 1;
+            }
+        }
+
+        return ((long) lower << 32) | (higher + 1);
+    }
+
     /**
      * The method "swap" swaps to integers in an array with the given positions.
      *
@@ -144,42 +621,57 @@ public class MedianSelector {
     }
 
     /**
-     * This method "createSplit" splits the given Field into to List with numbers bigger the pivot and lower the pivot.
+     * This method "createSplit" copies the numbers lower or higher than the pivot into a list.
+     * Numbers equal to the pivot are in neither list.
      *
-     * @param numbers    The field tom split
-     * @param valuePivot The value of the medianOfMendians
-     * @param direction
-     * @return
+     * @param numbers    The field to split
+     * @param valuePivot The value of the medianOfMedians
+     * @param direction  {@code 0} for the numbers lower than the pivot, {@code 1} for the
+     *                   numbers higher than it
+     * @return the numbers on the given side of the pivot, in their order in the field
+     * @deprecated selection now partitions in place and no longer needs this. Use
+     * {@link #select(int[], int, Strategy)} to select from a field.
      */
+    @Deprecated
     public static ArrayList<Integer> createSplit(int[] numbers, int valuePivot, int direction) {
-        //The list for the elements higher than the value of the pivot.
-        ArrayList<Integer> higher = new ArrayList<Integer>();
-        //The list for the elements lower than the value of the pivot.
-        ArrayList<Integer> lower = new ArrayList<Integer>();
-
-        //Check the demanded list: 0 = all elements higher in one list; 1= all elements lower in one list.
-        if (direction == 1) {
-            for (int i = 0; i < numbers.length; i++) {
-                if (numbers[i] > valuePivot) {
-                    higher.add(numbers[i]);
-                }
+        //The list for the elements on the demanded side of the pivot.
+        ArrayList<Integer> split = new ArrayList<Integer>();
+
+        //0 = all elements lower than the pivot; 1 = all elements higher than the pivot.
+        for (int i = 0; i < numbers.length; i++) {
+            if (direction == 1 ? numbers[i] > valuePivot : numbers[i] < valuePivot) {
+                split.add(numbers[i]);
             }
-            return higher;
         }
-        //Check the demanded list: 0 = all elements higher in one list; 1= all elements lower in one list.
-        if (direction == 0) {
-            for (int i = 0; i < numbers.length; i++) {
-                if (numbers[i] < valuePivot) {
-                    lower.add(numbers[i]);
-                }
+        return split;
+    }
+
+    /**
+     * The implementation of the sorting algorithm insertion sort, which is the fastest way to
+     * sort a few elements.
+     *
+     * @param numbers the field to sort
+     * @param from    the first index of the range to sort
+     * @param to      the last index of the range to sort
+     */
+    static void insertionSort(int[] numbers, int from, int to) {
+        for (int i = from + 1; i <= to; i++) {
+            int current = numbers[i];
+            int j = i - 1;
+
+            //shift the higher elements to the right until the place for current is found.
+            while (j >= from && numbers[j] > current) {
+                numbers[j + 1] = numbers[j];
+                j -= 1;
             }
-            return lower;
+            numbers[j + 1] = current;
         }
-        return lower;
     }
 
     /**
-     * The implementation of the sorting algorithm quicksort with O(n).
+     * Sorts the given range of the field. Small ranges are sorted by insertion sort, larger ones
+     * by {@link Arrays#sort(int[], int, int)}, which takes {@code O(n log n)} time even on
+     * sorted or otherwise adversarial input.
      *
      * @param A The field to sort
      * @param l left border
@@ -187,22 +679,10 @@ public class MedianSelector {
      * @return the sorted field
      */
     public static int[] sort(int[] A, int l, int r) {
-        int x, j, i, temp;
-        if (l < r) {
-            x = A[l];i = l + 1;j = r;
-            while (i <= j) {
-                while (i <= j && A[i] <= x) {
-                    i += 1;
-                }
-                while (i <= j && A[j] >= x) {
-                    j -= 1;
-                }
-                if (i < j) {
-                    temp = A[i];A[i] = A[j];A[j] = temp;
-                }
-            }
-            i = i - 1;A[l] = A[i];A[i] = x;
-            sort(A, l, i - 1);sort(A, i + 1, r);
+        if (r - l < SORT_CUTOFF) {
+            insertionSort(A, l, r);
+        } else {
+            Arrays.sort(A, l, r + 1);
         }
         return A;
     }
@@ -212,7 +692,9 @@ public class MedianSelector {
      *
      * @param integers The ArrayList
      * @return the converted field.
+     * @deprecated selection now partitions in place and no longer needs this.
      */
+    @Deprecated
     public static int[] convertIntegers(ArrayList<Integer> integers) {
         //create a field to convert in the list.
         int[] ret = new int[integers.size()];
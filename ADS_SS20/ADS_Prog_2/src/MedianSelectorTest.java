@@ -1,7 +1,9 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -22,6 +24,16 @@ public class MedianSelectorTest {
 				IllegalArgumentException.class,
 				() -> MedianSelector.lowerMedian(new int[0]),
 				"Your method doesn't throw the expected exception when we pass an empty array.");
+		
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> MedianSelector.lowerMedian(new int[] {42}, null),
+				"Your method doesn't throw the expected exception when we pass no strategy.");
+		
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> MedianSelector.lowerMedian(new String[] {"42"}, null),
+				"Your method doesn't throw the expected exception when we pass no comparator.");
 	}
 	
 	@Test
@@ -39,12 +51,183 @@ public class MedianSelectorTest {
 		performTests(new TestData(7, 3, 6, 9, 2, 10, 4, 5, 7, 1, 0, 11, 15, 13, 14, 12));
 	}
 	
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testSplitHelpers() {
+		int[] numbers = {7, 3, 6, 9, 2, 6, 10};
+		
+		assertArrayEquals(new int[] {3, 2}, MedianSelector.convertIntegers(
+				MedianSelector.createSplit(numbers, 6, 0)));
+		assertArrayEquals(new int[] {7, 9, 10}, MedianSelector.convertIntegers(
+				MedianSelector.createSplit(numbers, 6, 1)));
+	}
+	
 	@ParameterizedTest
 	@ValueSource(ints = {20, 21, 22, 23, 24, 25})
 	public void testRandomArrayOfLength(int length) {
 		performTests(TestData.random(length));
 	}
 	
+	@ParameterizedTest
+	@ValueSource(ints = {1000, 1001, 250000})
+	public void testLargeRandomArrayOfLength(int length) {
+		performTests(TestData.random(length));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1000, 1001, 250000})
+	public void testSortedArrayOfLength(int length) {
+		int[] array = new int[length];
+		for (int i = 0; i < length; i++) {
+			array[i] = i;
+		}
+		
+		performTests(new TestData((length - 1) / 2, array));
+	}
+	
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 20, 1001})
+	public void testMultipleRanksOfLength(int length) {
+		TestData instance = TestData.random(length);
+		int[] sorted = instance.copyData();
+		Arrays.sort(sorted);
+		
+		int[] ranks = {length - 1, 0, length / 2, (length - 1) / 2, length / 2};
+		int[] selected = MedianSelector.select(instance.copyData(), ranks);
+		for (int i = 0; i < ranks.length; i++) {
+			assertEquals(sorted[ranks[i]], selected[i],
+					"Element of rank " + ranks[i] + " is incorrect for the following array:\n\n" + instance);
+		}
+		
+		int[] quantiles = MedianSelector.quantiles(instance.copyData(), 0, 0.5, 0.99, 1);
+		assertEquals(sorted[0], quantiles[0], "Minimum is incorrect for:\n\n" + instance);
+		assertEquals(instance.solution, quantiles[1], "Median quantile is incorrect for:\n\n" + instance);
+		assertEquals(sorted[(int) Math.ceil(0.99 * length) - 1], quantiles[2],
+				"0.99-quantile is incorrect for:\n\n" + instance);
+		assertEquals(sorted[length - 1], quantiles[3], "Maximum is incorrect for:\n\n" + instance);
+	}
+	
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 20, 1023, 1024, 250000})
+	public void testStrategiesOfLength(int length) {
+		// Small values, so that a histogram can be used and there are plenty of duplicates
+		Random random = new Random(length);
+		int[] data = new int[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = random.nextInt(1000) - 500;
+		}
+		int[] sorted = Arrays.copyOf(data, data.length);
+		Arrays.sort(sorted);
+		
+		for (MedianSelector.Strategy strategy : MedianSelector.Strategy.values()) {
+			assertEquals(sorted[(length - 1) / 2], MedianSelector.lowerMedian(Arrays.copyOf(data, length), strategy),
+					"Lower median with strategy " + strategy + " is incorrect for:\n\n" + Arrays.toString(data));
+			assertEquals(sorted[length / 3], MedianSelector.select(Arrays.copyOf(data, length), length / 3, strategy),
+					"Element of rank " + length / 3 + " with strategy " + strategy + " is incorrect for:\n\n"
+							+ Arrays.toString(data));
+		}
+		
+		assertEquals(sorted[(length - 1) / 2], MedianSelector.lowerMedian(Arrays.copyOf(data, length), -500, 499),
+				"Lower median within a given range is incorrect for:\n\n" + Arrays.toString(data));
+	}
+	
+	@Test
+	public void testHistogramRangeTooLarge() {
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> MedianSelector.lowerMedian(new int[] {0, Integer.MAX_VALUE}, MedianSelector.Strategy.HISTOGRAM),
+				"Your method doesn't throw the expected exception when the range is too large for a histogram.");
+		
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> MedianSelector.lowerMedian(new int[] {1, 2, 3}, 1, 2),
+				"Your method doesn't throw the expected exception when a number lies outside the given range.");
+	}
+	
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 20, 1001, 250000})
+	public void testDuplicatesOfLength(int length) {
+		Random random = new Random(length);
+		int[] fewValues = new int[length];
+		int[] oneValue = new int[length];
+		for (int i = 0; i < length; i++) {
+			fewValues[i] = random.nextInt(3) * 1_000_000;
+			oneValue[i] = 42;
+		}
+		
+		for (int[] data : new int[][] {fewValues, oneValue}) {
+			int[] sorted = Arrays.copyOf(data, length);
+			Arrays.sort(sorted);
+			
+			for (MedianSelector.Strategy strategy : new MedianSelector.Strategy[] {
+					MedianSelector.Strategy.QUICKSELECT, MedianSelector.Strategy.MEDIAN_OF_MEDIANS}) {
+				assertEquals(sorted[(length - 1) / 2], MedianSelector.lowerMedian(Arrays.copyOf(data, length), strategy),
+						"Lower median with strategy " + strategy + " is incorrect for an array with duplicates.");
+			}
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 20, 1001, 250000})
+	public void testOtherElementTypesOfLength(int length) {
+		Random random = new Random(length);
+		long[] longs = new long[length];
+		double[] doubles = new double[length];
+		String[] strings = new String[length];
+		for (int i = 0; i < length; i++) {
+			longs[i] = random.nextLong() >> random.nextInt(64);
+			doubles[i] = i % 7 == 0 ? -0.0 : i % 11 == 0 ? Double.NaN : random.nextGaussian();
+			strings[i] = Integer.toString(random.nextInt(length));
+		}
+		
+		long[] sortedLongs = Arrays.copyOf(longs, length);
+		Arrays.sort(sortedLongs);
+		assertEquals(sortedLongs[(length - 1) / 2], MedianSelector.lowerMedianOfLongs(Arrays.copyOf(longs, length)),
+				"Lower median of longs is incorrect for:\n\n" + Arrays.toString(longs));
+		
+		double[] sortedDoubles = Arrays.copyOf(doubles, length);
+		Arrays.sort(sortedDoubles);
+		assertEquals(sortedDoubles[(length - 1) / 2], MedianSelector.lowerMedianOfDoubles(Arrays.copyOf(doubles, length)),
+				"Lower median of doubles is incorrect for:\n\n" + Arrays.toString(doubles));
+		
+		// Sort the strings in reverse, so that the comparator actually matters
+		String[] sortedStrings = Arrays.copyOf(strings, length);
+		Arrays.sort(sortedStrings, Comparator.reverseOrder());
+		assertEquals(sortedStrings[(length - 1) / 2],
+				MedianSelector.lowerMedian(Arrays.copyOf(strings, length), Comparator.reverseOrder()),
+				"Lower median of strings is incorrect for:\n\n" + Arrays.toString(strings));
+	}
+	
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1000, 1001, 250000})
+	public void testAdversarialArraysOfLength(int length) {
+		int[] reverse = new int[length];
+		int[] organPipe = new int[length];
+		for (int i = 0; i < length; i++) {
+			reverse[i] = length - i;
+			organPipe[i] = i < length / 2 ? i : length - i;
+		}
+		
+		for (int[] data : new int[][] {reverse, organPipe}) {
+			int[] sorted = Arrays.copyOf(data, length);
+			Arrays.sort(sorted);
+			performTests(new TestData(sorted[(length - 1) / 2], data));
+			
+			assertEquals(Arrays.toString(sorted), Arrays.toString(MedianSelector.sort(Arrays.copyOf(data, length), 0, length - 1)),
+					"Sorting is incorrect for an array of length " + length);
+			
+			// The primitive specializations have their own copies of the pivot fallback
+			assertEquals(sorted[(length - 1) / 2], MedianSelector.lowerMedianOfLongs(Arrays.stream(data).asLongStream().toArray()),
+					"Lower median of longs is incorrect for an adversarial array of length " + length);
+			assertEquals(sorted[(length - 1) / 2], MedianSelector.lowerMedianOfDoubles(Arrays.stream(data).asDoubleStream().toArray()),
+					"Lower median of doubles is incorrect for an adversarial array of length " + length);
+		}
+	}
+	
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	// Actual Test Running
@@ -0,0 +1,349 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Selects medians (and other ranks) of large arrays on a {@link ForkJoinPool}. Each round
+ * computes the medians of all groups of five in parallel, selects the median of these medians as
+ * its pivot, and partitions the range with a parallel count-and-scatter: every block of the range
+ * counts its elements lower than and equal to the pivot, prefix sums over these counts tell each
+ * block where to put its elements, and all blocks then scatter them into a buffer concurrently.
+ * Selection continues in the part that contains the rank, until it is smaller than the
+ * sequential threshold and {@link MedianSelector} takes over.
+ *
+ * <p>The median of medians guarantees that each round discards at least 30% of the range, so the
+ * work is linear just like in the sequential version. The results are the same as those of
+ * {@link MedianSelector#lowerMedian(int[])}, and the array is reordered in the same way: the
+ * range around the selected rank is partitioned by it.</p>
+ *
+ * <p>Instances own a pool and should be closed once they are no longer needed. They can be used
+ * by several threads at once.</p>
+ */
+public class ParallelMedianSelector implements AutoCloseable {
+
+    /** Default number of elements below which ranges are selected from sequentially. */
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 1 << 16;
+
+    //smallest number of elements each block of a parallel pass works on.
+    private static final int MIN_BLOCK_SIZE = 1 << 12;
+    //number of blocks per thread, so that threads that finish early can steal some more.
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    //the pool our passes run on.
+    private final ForkJoinPool pool;
+    //number of elements below which a range is selected from sequentially.
+    private final int sequentialThreshold;
+
+    /**
+     * Creates a new selector that uses as many threads as there are processors and the
+     * {@link #DEFAULT_SEQUENTIAL_THRESHOLD default sequential threshold}.
+     */
+    public ParallelMedianSelector() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
+    /**
+     * Creates a new selector with the given parallelism level and sequential threshold.
+     *
+     * @param parallelism         the number of threads to select with {@code > 0}.
+     * @param sequentialThreshold number of elements below which a range is selected from
+     *                            sequentially {@code > 0}.
+     * @throw IllegalArgumentException if any of the two parameters is not positive.
+     */
+    public ParallelMedianSelector(int parallelism, int sequentialThreshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+
+        if (sequentialThreshold < 1) {
+            throw new IllegalArgumentException("sequentialThreshold must be positive.");
+        }
+
+        this.pool = new ForkJoinPool(parallelism);
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    /**
+     * Computes the lower median of the given array like {@link MedianSelector#lowerMedian(int[])},
+     * but in parallel if the array is large. The result is the same.
+     *
+     * @param numbers array with numbers.
+     * @return the lower median.
+     * @throw IllegalArgumentException if the array is {@code null} or empty.
+     */
+    public int lowerMedian(int[] numbers) {
+        if (numbers == null || numbers.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        return select(numbers, (numbers.length - 1) / 2);
+    }
+
+    /**
+     * Computes the element that would be at the given index if the array was sorted, in parallel
+     * if the array is large. The array is reordered in place.
+     *
+     * @param numbers array with numbers.
+     * @param rank    the rank to compute, from {@code 0} (the minimum) to
+     *                {@code numbers.length - 1} (the maximum).
+     * @return the element of that rank.
+     * @throw IllegalArgumentException if the array is {@code null} or empty, or if the rank is out
+     * of range.
+     */
+    public int select(int[] numbers, int rank) {
+        if (numbers == null || numbers.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        if (rank < 0 || rank >= numbers.length) {
+            throw new IllegalArgumentException(
+                    "rank must be between 0 and " + (numbers.length - 1));
+        }
+
+        if (numbers.length <= sequentialThreshold) {
+            return MedianSelector.selectInRange(numbers, 0, numbers.length - 1, rank);
+        }
+        return pool.invoke(new SelectionTask(numbers, numbers.length, rank));
+    }
+
+    /**
+     * Shuts down this selector's pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Selection
+
+    /**
+     * Selects the element of a rank among the first {@code length} elements of an array. Runs on
+     * our pool and forks the passes of each round from there.
+     */
+    private final class SelectionTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        //the numbers to select from.
+        private final int[] numbers;
+        //number of elements at the start of the array to select from.
+        private final int length;
+        //the rank to select.
+        private final int rank;
+        //the medians of all groups of five of the current range.
+        private int[] medians;
+        //where elements are scattered to before they are copied back.
+        private int[] buffer;
+
+        //the current range, from (incl) to (incl).
+        private int from;
+        private int to;
+        //the blocks the current range is split into for the parallel passes.
+        private int blockSize;
+        private int blockCount;
+        //number of elements of each block lower than and equal to the pivot; before the
+        //scatter, they are turned into the index the block writes its next element of each
+        //kind to, and higherStarts is added for the elements higher than the pivot.
+        private int[] lowerCounts;
+        private int[] equalCounts;
+        private int[] higherStarts;
+
+        private SelectionTask(int[] numbers, int length, int rank) {
+            this.numbers = numbers;
+            this.length = length;
+            this.rank = rank;
+        }
+
+        @Override
+        protected Integer compute() {
+            medians = new int[(length + 4) / 5];
+            buffer = new int[length];
+            int maxBlockCount = BLOCKS_PER_THREAD * pool.getParallelism();
+            lowerCounts = new int[maxBlockCount];
+            equalCounts = new int[maxBlockCount];
+            higherStarts = new int[maxBlockCount];
+
+            from = 0;
+            to = length - 1;
+            while (to - from + 1 > sequentialThreshold) {
+                //split the range into blocks, a few per thread, but not too small ones. Their
+                //size is a multiple of five, so that no group of five spans two blocks.
+                int size = to - from + 1;
+                blockSize = Math.max(MIN_BLOCK_SIZE, (size + maxBlockCount - 1) / maxBlockCount);
+                blockSize += 4 - (blockSize + 4) % 5;
+                blockCount = (size + blockSize - 1) / blockSize;
+
+                int pivot = medianOfMedians();
+
+                //split the range into elements lower than, equal to and higher than the pivot.
+                long bounds = partition(pivot);
+                int lowerEnd = (int) (bounds >>> 32);
+                int higherStart = (int) bounds;
+
+                //continue in the part that contains the rank.
+                if (rank < lowerEnd) {
+                    to = lowerEnd - 1;
+                } else if (rank >= higherStart) {
+                    from = higherStart;
+                } else {
+                    return pivot;
+                }
+            }
+
+            return MedianSelector.selectInRange(numbers, from, to, rank);
+        }
+
+        /**
+         * Computes the medians of all groups of five of the range in parallel and selects the
+         * median of these medians.
+         */
+        private int medianOfMedians() {
+            forEachBlock(b -> {
+                for (int groupStart = blockStart(b); groupStart <= blockEnd(b); groupStart += 5) {
+                    //remember the (lower) median of the group; a last group with fewer than
+                    //five elements is simply sorted.
+                    int median;
+                    if (groupStart + 4 <= to) {
+                        median = MedianSelector.medianOfFive(numbers, groupStart);
+                    } else {
+                        MedianSelector.insertionSort(numbers, groupStart, to);
+                        median = (groupStart + to) >>> 1;
+                    }
+                    medians[(groupStart - from) / 5] = numbers[median];
+                }
+            });
+
+            //select the lower median of the group medians, in parallel if there are many.
+            int groupCount = (to - from + 5) / 5;
+            int medianRank = (groupCount - 1) / 2;
+            if (groupCount <= sequentialThreshold) {
+                return MedianSelector.selectInRange(medians, 0, groupCount - 1, medianRank);
+            }
+            return new SelectionTask(medians, groupCount, medianRank).invoke();
+        }
+
+        /**
+         * Reorders the range such that all elements lower than the pivot come first, followed by
+         * all elements equal to it, followed by all elements higher than it, just like
+         * {@link MedianSelector#partition(int[], int, int, int)}.
+         *
+         * @return the index of the first element equal to the pivot in the upper 32 bits, and
+         * the index of the first element higher than the pivot in the lower 32 bits.
+         */
+        private long partition(int pivot) {
+            //count the elements lower than and equal to the pivot in each block.
+            forEachBlock(b -> {
+                int lower = 0;
+                int equal = 0;
+                for (int i = blockStart(b); i <= blockEnd(b); i++) {
+                    lower += numbers[i] < pivot ? 1 : 0;
+                    equal += numbers[i] == pivot ? 1 : 0;
+                }
+                lowerCounts[b] = lower;
+                equalCounts[b] = equal;
+            });
+
+            //turn the counts into the index each block writes its first element of each kind to.
+            int lowerTotal = 0;
+            int equalTotal = 0;
+            for (int b = 0; b < blockCount; b++) {
+                lowerTotal += lowerCounts[b];
+                equalTotal += equalCounts[b];
+            }
+            int lowerStart = from;
+            int equalStart = from + lowerTotal;
+            int higherStart = from + lowerTotal + equalTotal;
+            for (int b = 0; b < blockCount; b++) {
+                int lower = lowerCounts[b];
+                int equal = equalCounts[b];
+                int higher = blockEnd(b) - blockStart(b) + 1 - lower - equal;
+
+                lowerCounts[b] = lowerStart;
+                equalCounts[b] = equalStart;
+                higherStarts[b] = higherStart;
+                lowerStart += lower;
+                equalStart += equal;
+                higherStart += higher;
+            }
+
+            //scatter the elements into the buffer, and copy them back once all are there.
+            forEachBlock(b -> {
+                int lower = lowerCounts[b];
+                int equal = equalCounts[b];
+                int higher = higherStarts[b];
+                for (int i = blockStart(b); i <= blockEnd(b); i++) {
+                    int current = numbers[i];
+                    if (current < pivot) {
+                        buffer[lower++] = current;
+                    } else if (current > pivot) {
+                        buffer[higher++] = current;
+                    } else {
+                        buffer[equal++] = current;
+                    }
+                }
+            });
+            forEachBlock(b -> System.arraycopy(buffer, blockStart(b), numbers, blockStart(b),
+                    blockEnd(b) - blockStart(b) + 1));
+
+            return ((long) (from + lowerTotal) << 32) | (from + lowerTotal + equalTotal);
+        }
+
+        /**
+         * Returns the first index of the given block of the current range.
+         */
+        private int blockStart(int block) {
+            return from + block * blockSize;
+        }
+
+        /**
+         * Returns the last index of the given block of the current range.
+         */
+        private int blockEnd(int block) {
+            return Math.min(to, from + (block + 1) * blockSize - 1);
+        }
+
+        /**
+         * Runs the given action for each block of the current range in parallel, and returns
+         * once all are done.
+         */
+        private void forEachBlock(IntConsumer action) {
+            new BlockTask(action, 0, blockCount - 1).invoke();
+        }
+    }
+
+    /**
+     * Runs an action for a range of blocks, splitting the range in halves until each half
+     * consists of one block.
+     */
+    private static final class BlockTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        //what to do with each block.
+        private final IntConsumer action;
+        //first block to run the action for.
+        private final int from;
+        //last block to run the action for (incl).
+        private final int to;
+
+        private BlockTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (from == to) {
+                action.accept(from);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BlockTask(action, from, middle),
+                        new BlockTask(action, middle + 1, to));
+            }
+        }
+    }
+
+}
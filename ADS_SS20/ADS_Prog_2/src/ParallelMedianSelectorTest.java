@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ParallelMedianSelectorTest {
+	
+	/** A tiny threshold, so that even small arrays take a few parallel rounds. */
+	private static final int SEQUENTIAL_THRESHOLD = 100;
+	
+	@Test
+	public void testInvalidInput() {
+		try (ParallelMedianSelector selector = new ParallelMedianSelector(4, SEQUENTIAL_THRESHOLD)) {
+			assertThrows(
+					IllegalArgumentException.class,
+					() -> selector.lowerMedian(null),
+					"The selector doesn't throw the expected exception when we pass null.");
+			
+			assertThrows(
+					IllegalArgumentException.class,
+					() -> selector.lowerMedian(new int[0]),
+					"The selector doesn't throw the expected exception when we pass an empty array.");
+			
+			assertThrows(
+					IllegalArgumentException.class,
+					() -> selector.select(new int[3], 3),
+					"The selector doesn't throw the expected exception for a rank out of range.");
+		}
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 100, 101, 1000, 12345, 250000})
+	public void testRandomArrayOfLength(int length) {
+		Random random = new Random(length);
+		int[] data = new int[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = random.nextInt();
+		}
+		performTests(data);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1000, 1001, 250000})
+	public void testManyDuplicatesOfLength(int length) {
+		Random random = new Random(length);
+		int[] data = new int[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = random.nextInt(7);
+		}
+		performTests(data);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1000, 1001, 250000})
+	public void testSortedArrayOfLength(int length) {
+		int[] data = new int[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = i;
+		}
+		performTests(data);
+	}
+	
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	// Actual Test Running
+
+	private void performTests(int[] data) {
+		int expected = MedianSelector.lowerMedian(Arrays.copyOf(data, data.length));
+		
+		try (ParallelMedianSelector selector = new ParallelMedianSelector(4, SEQUENTIAL_THRESHOLD)) {
+			int[] copy = Arrays.copyOf(data, data.length);
+			assertEquals(expected, selector.lowerMedian(copy),
+					"Parallel lower median differs from the sequential one for an array of length "
+							+ data.length);
+			
+			// The array must have been reordered, not changed
+			int[] sorted = Arrays.copyOf(data, data.length);
+			Arrays.sort(sorted);
+			Arrays.sort(copy);
+			assertArrayEquals(sorted, copy,
+					"The selector changed the elements of the array.");
+			
+			int rank = data.length / 3;
+			assertEquals(sorted[rank], selector.select(Arrays.copyOf(data, data.length), rank),
+					"Element of rank " + rank + " is incorrect for an array of length " + data.length);
+		}
+	}
+
+}
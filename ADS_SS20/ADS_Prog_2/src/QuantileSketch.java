@@ -0,0 +1,312 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An approximate quantile sketch for streams of numbers that are too large to keep in memory, as
+ * an alternative to the exact {@link MedianSelector}. This is a KLL sketch (Karnin, Lang and
+ * Liberty, "Optimal Quantile Approximation in Streams", 2016).
+ *
+ * <p>The sketch keeps a stack of compactors. Numbers enter at level 0, where each retained number
+ * stands for one number of the stream; a number at level {@code h} stands for {@code 2^h} of
+ * them. Once a level is full, it is sorted and every other number (starting at a random offset)
+ * is promoted to the next level, while the rest are discarded. Higher levels may hold more
+ * numbers than lower ones (each level has about {@code 2/3} of the capacity of the one above),
+ * which is what makes the sketch space-optimal.</p>
+ *
+ * <p><b>Guarantees.</b> A sketch with parameter {@code k} retains {@code O(k + log n)} numbers,
+ * at most about {@code 3k} in practice, no matter how many it has seen. The rank of a returned
+ * quantile differs from the requested rank by {@code O(n / k)} with high probability; with the
+ * default {@code k = 200}, the error is within about 1.7% of {@code n} in 99% of the cases.
+ * Minimum and maximum are tracked exactly. Merging two sketches yields the same guarantees as if
+ * all numbers had been added to one sketch.</p>
+ *
+ * <p>Sketches are not thread-safe.</p>
+ */
+public class QuantileSketch {
+
+    /** Default value of the accuracy parameter {@code k}. */
+    public static final int DEFAULT_K = 200;
+
+    //capacity of each level relative to the level above it.
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+    //no level has less capacity than this.
+    private static final int MIN_CAPACITY = 2;
+
+    //the accuracy parameter.
+    private final int k;
+    //source of the random offsets of compactions.
+    private final Random random;
+    //the numbers retained at each level; only the first levelSizes[h] entries are used.
+    private int[][] levels = new int[0][];
+    //number of numbers retained at each level.
+    private int[] levelSizes = new int[0];
+    //number of numbers retained at all levels.
+    private int retained = 0;
+    //number of numbers we may retain at all levels before we compact.
+    private int maxRetained = 0;
+    //number of numbers seen so far.
+    private long count = 0;
+    //smallest and largest number seen so far.
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    /**
+     * Creates an empty sketch with the {@link #DEFAULT_K default accuracy}.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty sketch with the given accuracy parameter.
+     *
+     * @param k the accuracy parameter; the rank error is about inversely proportional to it,
+     *          and the memory needed about proportional. Must be at least {@code 8}.
+     * @throw IllegalArgumentException if {@code k} is too small.
+     */
+    public QuantileSketch(int k) {
+        this(k, new Random());
+    }
+
+    /**
+     * Creates an empty sketch with the given accuracy parameter, whose compactions are driven by
+     * the given random number generator. Mainly useful to get reproducible results in tests.
+     *
+     * @param k      the accuracy parameter, at least {@code 8}.
+     * @param random the random number generator to use.
+     * @throw IllegalArgumentException if {@code k} is too small.
+     */
+    public QuantileSketch(int k, Random random) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8.");
+        }
+
+        this.k = k;
+        this.random = random;
+        addLevel();
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Updating
+
+    /**
+     * Adds a number to the sketch.
+     *
+     * @param value the number to add.
+     */
+    public void add(int value) {
+        count += 1;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        append(0, value);
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds all numbers seen by another sketch to this one. The other sketch is left unchanged.
+     *
+     * @param other the sketch to merge into this one.
+     * @throw IllegalArgumentException if the other sketch is {@code null} or this sketch itself,
+     * or if it has a different accuracy parameter.
+     */
+    public void merge(QuantileSketch other) {
+        //merging into the levels we read from would never end.
+        if (other == null || other == this) {
+            throw new IllegalArgumentException("Can only merge another sketch.");
+        }
+
+        if (other.k != k) {
+            throw new IllegalArgumentException("Only sketches with the same k can be merged.");
+        }
+
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Appends a number to the given level.
+     */
+    private void append(int level, int value) {
+        if (levelSizes[level] == levels[level].length) {
+            int newLength = Math.max(MIN_CAPACITY, 2 * levelSizes[level]);
+            levels[level] = Arrays.copyOf(levels[level], newLength);
+        }
+
+        levels[level][levelSizes[level]] = value;
+        levelSizes[level] += 1;
+        retained += 1;
+    }
+
+    /**
+     * Compacts the lowest level that is over its capacity, adding a new level on top if needed.
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (levelSizes[h] >= capacity(h)) {
+                if (h + 1 == levels.length) {
+                    addLevel();
+                }
+                compact(h);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sorts the given level and promotes every other number to the next level, discarding the
+     * rest. With an odd number of numbers, the one added last stays behind.
+     */
+    private void compact(int level) {
+        int[] numbers = levels[level];
+        int size = levelSizes[level];
+        int kept = size % 2 == 1 ? numbers[size - 1] : 0;
+        int compacted = size - size % 2;
+
+        Arrays.sort(numbers, 0, compacted);
+        for (int i = random.nextBoolean() ? 1 : 0; i < compacted; i += 2) {
+            append(level + 1, numbers[i]);
+        }
+
+        retained -= compacted;
+        levelSizes[level] = 0;
+        if (size % 2 == 1) {
+            numbers[0] = kept;
+            levelSizes[level] = 1;
+        }
+    }
+
+    /**
+     * Adds a new level on top and recomputes the capacities, which depend on the number of levels.
+     */
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new int[MIN_CAPACITY];
+        levelSizes = Arrays.copyOf(levelSizes, levelSizes.length + 1);
+
+        maxRetained = 0;
+        for (int h = 0; h < levels.length; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    /**
+     * Returns the capacity of the given level. The top level has capacity {@code k}, and each
+     * level below has {@link #CAPACITY_RATIO} times the capacity of the one above.
+     */
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Queries
+
+    /**
+     * Returns the number of numbers this sketch has seen.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of numbers this sketch currently retains.
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    /**
+     * Returns an approximation of the given quantile of all numbers seen so far. Quantiles are
+     * defined like in {@link MedianSelector#quantiles(int[], double...)}: the {@code q}-quantile
+     * of {@code n} numbers is the element of rank {@code ceil(q * n) - 1}, so {@code 0.5} stands
+     * for the lower median, {@code 0} for the minimum and {@code 1} for the maximum.
+     *
+     * @param quantile the quantile to compute, between {@code 0} and {@code 1}.
+     * @return an approximation of the quantile. Minimum and maximum are exact.
+     * @throw IllegalArgumentException if the quantile is out of range.
+     * @throw IllegalStateException if the sketch has not seen any numbers.
+     */
+    public int quantile(double quantile) {
+        return quantiles(quantile)[0];
+    }
+
+    /**
+     * Returns approximations of several quantiles at once, which is cheaper than asking for them
+     * one after another.
+     *
+     * @param quantiles the quantiles to compute, each between {@code 0} and {@code 1}.
+     * @return an approximation of each quantile, in the order they were given in.
+     * @throw IllegalArgumentException if a quantile is out of range.
+     * @throw IllegalStateException if the sketch has not seen any numbers.
+     * @see #quantile(double)
+     */
+    public int[] quantiles(double... quantiles) {
+        if (count == 0) {
+            throw new IllegalStateException("The sketch has not seen any numbers yet.");
+        }
+
+        //collect all retained numbers along with their weights, sorted by number.
+        long[] weighted = new long[retained];
+        int index = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < levelSizes[h]; i++) {
+                //the number goes into the upper bits (shifted to be unsigned), its level into the
+                //lower bits, so sorting the longs sorts by number.
+                weighted[index] = ((long) levels[h][i] - Integer.MIN_VALUE) << 6 | h;
+                index += 1;
+            }
+        }
+        Arrays.sort(weighted);
+
+        int[] result = new int[quantiles.length];
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = MedianSelector.quantileRank(quantiles[q], count);
+
+            if (rank == 0) {
+                result[q] = min;
+            } else if (rank == count - 1) {
+                result[q] = max;
+            } else {
+                result[q] = numberAtRank(weighted, rank);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the first retained number whose cumulative weight exceeds the given rank.
+     */
+    private static int numberAtRank(long[] weighted, long rank) {
+        long cumulativeWeight = 0;
+
+        for (long entry : weighted) {
+            cumulativeWeight += 1L << (entry & 63);
+
+            if (cumulativeWeight > rank) {
+                return (int) ((entry >> 6) + Integer.MIN_VALUE);
+            }
+        }
+        return (int) ((weighted[weighted.length - 1] >> 6) + Integer.MIN_VALUE);
+    }
+
+}
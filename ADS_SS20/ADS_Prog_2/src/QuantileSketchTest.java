@@ -0,0 +1,170 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class QuantileSketchTest {
+	
+	/** Largest rank error we accept, as a fraction of the number of numbers. */
+	private static final double MAX_RANK_ERROR = 0.02;
+	
+	@Test
+	public void testInvalidInput() {
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> new QuantileSketch(1),
+				"The sketch doesn't throw the expected exception for a tiny k.");
+		
+		assertThrows(
+				IllegalStateException.class,
+				() -> new QuantileSketch().quantile(0.5),
+				"The sketch doesn't throw the expected exception when it is empty.");
+		
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.add(42);
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> sketch.quantile(1.5),
+				"The sketch doesn't throw the expected exception for a quantile out of range.");
+		
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> sketch.merge(sketch),
+				"The sketch doesn't throw the expected exception when merged into itself.");
+		
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> sketch.merge(new QuantileSketch(2 * QuantileSketch.DEFAULT_K)),
+				"The sketch doesn't throw the expected exception for a different k.");
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 20, 1000, 1001})
+	public void testSmallStreamOfLength(int length) {
+		Random random = new Random(length);
+		int[] data = randomData(random, length, Integer.MAX_VALUE);
+		
+		QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_K, random);
+		for (int value : data) {
+			sketch.add(value);
+		}
+		
+		// Small streams fit into the lowest level, so nothing has been compacted yet
+		if (length < QuantileSketch.DEFAULT_K) {
+			assertEquals(MedianSelector.lowerMedian(data.clone()), sketch.quantile(0.5),
+					"Median of a small stream is incorrect for:\n\n" + Arrays.toString(data));
+		}
+		assertRankErrorIsSmall(data, sketch);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {100_000, 1_000_000})
+	public void testLargeStreamOfLength(int length) {
+		Random random = new Random(length);
+		int[] data = randomData(random, length, Integer.MAX_VALUE);
+		
+		QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_K, random);
+		for (int value : data) {
+			sketch.add(value);
+		}
+		
+		assertTrue(sketch.getRetained() <= 4 * QuantileSketch.DEFAULT_K,
+				"The sketch retains " + sketch.getRetained() + " numbers.");
+		assertRankErrorIsSmall(data, sketch);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {2, 7, 16})
+	public void testMergedStreamsOf(int parts) {
+		Random random = new Random(parts);
+		int[] data = randomData(random, 200_000, 1000);
+		
+		// Every part sees an interleaved slice of the data, and all are merged into the first one
+		QuantileSketch[] sketches = new QuantileSketch[parts];
+		for (int p = 0; p < parts; p++) {
+			sketches[p] = new QuantileSketch(QuantileSketch.DEFAULT_K, random);
+		}
+		for (int i = 0; i < data.length; i++) {
+			sketches[i % parts].add(data[i]);
+		}
+		for (int p = 1; p < parts; p++) {
+			sketches[0].merge(sketches[p]);
+		}
+		
+		assertEquals(data.length, sketches[0].getCount(), "Merged sketch has the wrong count.");
+		assertRankErrorIsSmall(data, sketches[0]);
+	}
+	
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	// Utilities
+
+	/**
+	 * Checks the median against the exact lower median, and a few other quantiles against the
+	 * sorted data, allowing for a rank error of {@link #MAX_RANK_ERROR}.
+	 */
+	private void assertRankErrorIsSmall(int[] data, QuantileSketch sketch) {
+		int[] sorted = data.clone();
+		Arrays.sort(sorted);
+		
+		int median = MedianSelector.lowerMedian(data.clone());
+		assertWithinRank(sorted, (data.length - 1) / 2, median, sketch.quantile(0.5));
+		
+		double[] quantiles = {0, 0.01, 0.25, 0.75, 0.99, 1};
+		int[] approximations = sketch.quantiles(quantiles);
+		for (int q = 0; q < quantiles.length; q++) {
+			int rank = (int) MedianSelector.quantileRank(quantiles[q], data.length);
+			assertWithinRank(sorted, rank, sorted[rank], approximations[q]);
+		}
+	}
+	
+	/**
+	 * Checks that the approximation has a rank close enough to the given rank.
+	 */
+	private void assertWithinRank(int[] sorted, int rank, int exact, int approximation) {
+		// Ranks the approximation may have, taking duplicates into account
+		int firstRank = lowerBound(sorted, approximation);
+		int lastRank = lowerBound(sorted, approximation + 1L) - 1;
+		
+		long error = Math.max(0, Math.max(firstRank - rank, rank - lastRank));
+		assertTrue(error <= MAX_RANK_ERROR * sorted.length,
+				"Approximation " + approximation + " of " + exact + " (rank " + rank + ") is "
+						+ error + " ranks off.");
+	}
+	
+	/**
+	 * Returns the index of the first number in the sorted array that is not smaller than the
+	 * given value.
+	 */
+	private static int lowerBound(int[] sorted, long value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Creates an array of random numbers between 0 (inclusive) and the given bound (exclusive).
+	 */
+	private static int[] randomData(Random random, int length, int bound) {
+		int[] data = new int[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = random.nextInt(bound);
+		}
+		return data;
+	}
+
+}
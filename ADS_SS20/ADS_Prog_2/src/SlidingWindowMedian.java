@@ -0,0 +1,199 @@
+/**
+ * Keeps track of the lower median of the last {@code W} samples of a stream. Recomputing the
+ * median of the window with {@link MedianSelector#lowerMedian(int[])} costs {@code O(W)} per
+ * sample; this structure adds and evicts samples in {@code O(log W)} and returns the median in
+ * {@code O(1)}.
+ *
+ * <p>The window is a ring of slots, one per sample. The slots are split between two heaps: a
+ * max-heap with the lower half of the window and a min-heap with the upper half, where the lower
+ * half has as many samples as the upper one or one more. The lower median is thus the top of the
+ * max-heap. Every slot knows which heap it is in and where, so the oldest sample can be removed
+ * directly instead of being marked and skipped later, and no memory is allocated after
+ * construction.</p>
+ */
+public class SlidingWindowMedian {
+
+    //the heaps of slots.
+    private static final int LOWER = 0;
+    private static final int UPPER = 1;
+
+    //the samples in the window, by slot.
+    private final int[] samples;
+    //the heap each slot is in, and its index in there.
+    private final int[] heapOf;
+    private final int[] indexOf;
+    //the slots of each heap: the lower half as a max-heap and the upper half as a min-heap.
+    private final int[][] heaps;
+    //number of slots in each heap.
+    private final int[] heapSizes = new int[2];
+    //the slot the next sample goes into, which holds the oldest sample once the window is full.
+    private int nextSlot = 0;
+
+    /**
+     * Creates an empty window of the given size.
+     *
+     * @param windowSize the number of samples to compute the median of {@code > 0}.
+     * @throw IllegalArgumentException if the window size is not positive.
+     */
+    public SlidingWindowMedian(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be positive.");
+        }
+
+        samples = new int[windowSize];
+        heapOf = new int[windowSize];
+        indexOf = new int[windowSize];
+        heaps = new int[][] {new int[(windowSize + 1) / 2 + 1], new int[windowSize / 2 + 1]};
+    }
+
+    /**
+     * Adds a sample to the window, evicting the oldest one if the window is full.
+     *
+     * @param sample the sample to add.
+     */
+    public void add(int sample) {
+        int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % samples.length;
+
+        if (size() == samples.length) {
+            remove(heapOf[slot], indexOf[slot]);
+        }
+
+        //the sample belongs to the lower half if it is not above the lower half's maximum, or,
+        //if the eviction left the lower half empty, not above the upper half's minimum.
+        samples[slot] = sample;
+        int bound = heapSizes[LOWER] > 0 ? heaps[LOWER][0] : heaps[UPPER][0];
+        if (size() == 0 || sample <= samples[bound]) {
+            insert(LOWER, slot);
+        } else {
+            insert(UPPER, slot);
+        }
+
+        //restore the balance between the two halves.
+        if (heapSizes[LOWER] > heapSizes[UPPER] + 1) {
+            insert(UPPER, remove(LOWER, 0));
+        } else if (heapSizes[UPPER] > heapSizes[LOWER]) {
+            insert(LOWER, remove(UPPER, 0));
+        }
+    }
+
+    /**
+     * Returns the lower median of the samples in the window.
+     *
+     * @return the lower median.
+     * @throw IllegalStateException if no sample has been added yet.
+     */
+    public int lowerMedian() {
+        if (heapSizes[LOWER] == 0) {
+            throw new IllegalStateException("The window is empty.");
+        }
+        return samples[heaps[LOWER][0]];
+    }
+
+    /**
+     * Returns the number of samples in the window, which is the window size once enough samples
+     * have been added.
+     */
+    public int size() {
+        return heapSizes[LOWER] + heapSizes[UPPER];
+    }
+
+    /**
+     * Returns the maximum number of samples in the window.
+     */
+    public int getWindowSize() {
+        return samples.length;
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Heaps
+
+    /**
+     * Inserts a slot into the given heap.
+     */
+    private void insert(int heap, int slot) {
+        int index = heapSizes[heap];
+        heapSizes[heap] += 1;
+        place(heap, index, slot);
+        siftUp(heap, index);
+    }
+
+    /**
+     * Removes the slot at the given index from the given heap and returns it.
+     */
+    private int remove(int heap, int index) {
+        int[] slots = heaps[heap];
+        int slot = slots[index];
+        heapSizes[heap] -= 1;
+
+        //fill the gap with the last slot, which may have to move up or down from there.
+        int last = heapSizes[heap];
+        if (index != last) {
+            place(heap, index, slots[last]);
+            siftDown(heap, siftUp(heap, index));
+        }
+        return slot;
+    }
+
+    /**
+     * Moves the slot at the given index up until its parent is not below it, and returns the
+     * index it ends up at.
+     */
+    private int siftUp(int heap, int index) {
+        int[] slots = heaps[heap];
+        int slot = slots[index];
+
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isAbove(heap, slot, slots[parent])) {
+                break;
+            }
+            place(heap, index, slots[parent]);
+            index = parent;
+        }
+        place(heap, index, slot);
+        return index;
+    }
+
+    /**
+     * Moves the slot at the given index down until none of its children are above it.
+     */
+    private void siftDown(int heap, int index) {
+        int[] slots = heaps[heap];
+        int size = heapSizes[heap];
+        int slot = slots[index];
+
+        while (2 * index + 1 < size) {
+            //find the child that should be on top.
+            int child = 2 * index + 1;
+            if (child + 1 < size && isAbove(heap, slots[child + 1], slots[child])) {
+                child += 1;
+            }
+
+            if (!isAbove(heap, slots[child], slot)) {
+                break;
+            }
+            place(heap, index, slots[child]);
+            index = child;
+        }
+        place(heap, index, slot);
+    }
+
+    /**
+     * Checks whether the first slot belongs above the second one in the given heap.
+     */
+    private boolean isAbove(int heap, int slot1, int slot2) {
+        return heap == LOWER ? samples[slot1] > samples[slot2] : samples[slot1] < samples[slot2];
+    }
+
+    /**
+     * Puts a slot at the given index of the given heap and remembers where it is.
+     */
+    private void place(int heap, int index, int slot) {
+        heaps[heap][index] = slot;
+        heapOf[slot] = heap;
+        indexOf[slot] = index;
+    }
+
+}
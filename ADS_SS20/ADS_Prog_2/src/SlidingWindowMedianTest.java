@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class SlidingWindowMedianTest {
+	
+	@Test
+	public void testInvalidInput() {
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> new SlidingWindowMedian(0),
+				"The window doesn't throw the expected exception for a window size of 0.");
+		
+		assertThrows(
+				IllegalStateException.class,
+				() -> new SlidingWindowMedian(3).lowerMedian(),
+				"The window doesn't throw the expected exception when it is empty.");
+	}
+	
+	@Test
+	public void testLectureExample() {
+		performTests(3, 7, 3, 6, 9, 2, 10, 4, 5, 7, 1, 0, 11, 15, 13, 14, 12);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 3, 4, 5, 16, 17, 100, 1001})
+	public void testRandomStreamWithWindowSize(int windowSize) {
+		Random random = new Random(windowSize);
+		int[] stream = new int[3 * windowSize + 100];
+		for (int i = 0; i < stream.length; i++) {
+			stream[i] = random.nextInt();
+		}
+		performTests(windowSize, stream);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 7, 64, 1000})
+	public void testManyDuplicatesWithWindowSize(int windowSize) {
+		Random random = new Random(windowSize);
+		int[] stream = new int[3 * windowSize + 100];
+		for (int i = 0; i < stream.length; i++) {
+			stream[i] = random.nextInt(5);
+		}
+		performTests(windowSize, stream);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(ints = {2, 33, 500})
+	public void testMonotonicStreamWithWindowSize(int windowSize) {
+		int[] stream = new int[3 * windowSize + 100];
+		for (int i = 0; i < stream.length; i++) {
+			stream[i] = i < stream.length / 2 ? i : stream.length - i;
+		}
+		performTests(windowSize, stream);
+	}
+	
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	// Actual Test Running
+
+	/**
+	 * Feeds the stream to a window of the given size and compares its median to the lower median
+	 * of the last samples after every single sample.
+	 */
+	private void performTests(int windowSize, int... stream) {
+		SlidingWindowMedian window = new SlidingWindowMedian(windowSize);
+		
+		for (int i = 0; i < stream.length; i++) {
+			window.add(stream[i]);
+			
+			int[] lastSamples = Arrays.copyOfRange(stream, Math.max(0, i + 1 - windowSize), i + 1);
+			assertEquals(lastSamples.length, window.size(), "Window has the wrong size.");
+			assertEquals(MedianSelector.lowerMedian(Arrays.copyOf(lastSamples, lastSamples.length)),
+					window.lowerMedian(),
+					"Lower median is incorrect for the window:\n\n" + Arrays.toString(lastSamples));
+		}
+	}
+
+}
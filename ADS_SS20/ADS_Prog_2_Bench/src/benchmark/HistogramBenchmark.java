@@ -0,0 +1,149 @@
+package benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the histogram strategy of {@code MedianSelector} against quickselect. The
+ * histogram rejects inputs whose range exceeds {@code MedianSelector.MAX_HISTOGRAM_RANGE}, so
+ * unlike {@link MedianSelectorBenchmark} this only uses the distributions with a small range.
+ *
+ * <p>Every invocation copies the input into a work array first, as in
+ * {@link MedianSelectorBenchmark}, whose {@code copy} benchmark tells what that costs. The
+ * largest size needs 800 MB of heap, which the fork is given twice over.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class HistogramBenchmark {
+
+    //MedianSelector.lowerMedian(int[], Strategy) and lowerMedian(int[], int, int).
+    private static final MethodHandle LOWER_MEDIAN_WITH_STRATEGY;
+    private static final MethodHandle LOWER_MEDIAN_IN_RANGE;
+    //the strategies of MedianSelector we benchmark.
+    private static final Object AUTO;
+    private static final Object QUICKSELECT;
+    private static final Object HISTOGRAM;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> selector = Class.forName("MedianSelector");
+            Class<?> strategy = Class.forName("MedianSelector$Strategy");
+
+            LOWER_MEDIAN_WITH_STRATEGY = lookup.findStatic(selector, "lowerMedian",
+                    MethodType.methodType(int.class, int[].class, strategy))
+                    .asType(MethodType.methodType(int.class, int[].class, Object.class));
+            LOWER_MEDIAN_IN_RANGE = lookup.findStatic(selector, "lowerMedian",
+                    MethodType.methodType(int.class, int[].class, int.class, int.class));
+            AUTO = strategy.getField("AUTO").get(null);
+            QUICKSELECT = strategy.getField("QUICKSELECT").get(null);
+            HISTOGRAM = strategy.getField("HISTOGRAM").get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"MANY_DUPLICATES", "SMALL_RANGE"})
+    public MedianSelectorBenchmark.Distribution distribution;
+
+    //the input, which is never changed.
+    private int[] data;
+    //the array each invocation copies the input to and selects from.
+    private int[] work;
+    //the range of the input, as a caller that knows it would pass it.
+    private int minValue;
+    private int maxValue;
+
+    @Setup
+    public void setUp() {
+        data = MedianSelectorBenchmark.createData(distribution, size, new Random(42));
+        work = new int[size];
+        minValue = Integer.MAX_VALUE;
+        maxValue = Integer.MIN_VALUE;
+        for (int number : data) {
+            minValue = Math.min(minValue, number);
+            maxValue = Math.max(maxValue, number);
+        }
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Benchmarks
+
+    @Benchmark
+    public int quickselect() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN_WITH_STRATEGY.invokeExact(work, QUICKSELECT);
+    }
+
+    /**
+     * Finds out the range first and picks the histogram only for large arrays.
+     */
+    @Benchmark
+    public int auto() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN_WITH_STRATEGY.invokeExact(work, AUTO);
+    }
+
+    /**
+     * Always counts, which also finds out the range first.
+     */
+    @Benchmark
+    public int histogram() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN_WITH_STRATEGY.invokeExact(work, HISTOGRAM);
+    }
+
+    /**
+     * Counts in the known range, which saves the pass that finds it out.
+     */
+    @Benchmark
+    public int knownRange() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN_IN_RANGE.invokeExact(work, minValue, maxValue);
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Utilities
+
+    /**
+     * Runs all benchmarks of this class with the GC profiler.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HistogramBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,494 @@
+package benchmark;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the selection engines of {@code MedianSelector} and its companions, across
+ * input sizes and distributions. Run {@link #main(String[])}, which adds the GC profiler so that
+ * the allocation rate is reported next to the throughput, or use the JMH command line, for
+ * example {@code -p size=1000000 -p distribution=RANDOM -prof gc} to restrict the parameters.
+ * The explicit histogram strategy only works on inputs with a small range and is benchmarked
+ * separately by {@link HistogramBenchmark}. See the README of this module for how to get JMH and
+ * build the benchmarks.
+ *
+ * <p>JMH does not accept benchmarks in the default package, and the default package, where the
+ * selectors live, cannot be imported from any other. The selectors are therefore called through
+ * method handles. These are constants, so the JIT compiles the calls just like direct ones.</p>
+ *
+ * <p>Selection reorders its input, so every invocation first copies the data into a work array.
+ * {@link #copy()} measures that copy alone, to tell how much of each score it accounts for.</p>
+ *
+ * <p>At the largest size, the input and its work array take 800 MB of heap. The parallel
+ * selector allocates another 480 MB, the long and double benchmarks keep 1.6 GB of copies, and
+ * the generic benchmark keeps 2.4 GB of boxed copies, so a fork needs up to 3.2 GB. It is given
+ * 5 GB to leave the collector some room. The mapped selector's file takes 400 MB of disk space
+ * in the temporary directory.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx5g")
+@State(Scope.Benchmark)
+public class MedianSelectorBenchmark {
+
+    /**
+     * The ways the input numbers are laid out.
+     */
+    public enum Distribution {
+        /** Uniformly random over the whole range of {@code int}. */
+        RANDOM,
+        /** Ascending. */
+        SORTED,
+        /** Descending. */
+        REVERSE,
+        /** Ascending up to the middle, then descending. */
+        ORGAN_PIPE,
+        /** Random, but with only ten distinct values. */
+        MANY_DUPLICATES,
+        /** Random below 65536, like latencies in milliseconds; suits a histogram. */
+        SMALL_RANGE,
+        /** Musser's sequence, which makes median-of-three pivots pick very low elements. */
+        MEDIAN_OF_3_KILLER
+    }
+
+    //number of samples the sliding window median is computed over.
+    private static final int WINDOW_SIZE = 1024;
+
+    //MedianSelector.lowerMedian(int[]), lowerMedian(int[], Strategy) and
+    //quantiles(int[], double...).
+    private static final MethodHandle LOWER_MEDIAN;
+    private static final MethodHandle LOWER_MEDIAN_WITH_STRATEGY;
+    private static final MethodHandle QUANTILES;
+    //MedianSelector.lowerMedianOfLongs(long[]), lowerMedianOfDoubles(double[]) and
+    //lowerMedian(T[], Comparator).
+    private static final MethodHandle LOWER_MEDIAN_OF_LONGS;
+    private static final MethodHandle LOWER_MEDIAN_OF_DOUBLES;
+    private static final MethodHandle LOWER_MEDIAN_OF_OBJECTS;
+    //the strategies of MedianSelector we benchmark.
+    private static final Object AUTO;
+    private static final Object QUICKSELECT;
+    private static final Object MEDIAN_OF_MEDIANS;
+    //MappedMedianSelector.lowerMedian(Path).
+    private static final MethodHandle MAPPED_LOWER_MEDIAN;
+    //new SlidingWindowMedian(int), and its add(int) and lowerMedian().
+    private static final MethodHandle NEW_WINDOW;
+    private static final MethodHandle WINDOW_ADD;
+    private static final MethodHandle WINDOW_LOWER_MEDIAN;
+    //new ParallelMedianSelector(), and its lowerMedian(int[]) and close().
+    private static final MethodHandle NEW_PARALLEL_SELECTOR;
+    private static final MethodHandle PARALLEL_LOWER_MEDIAN;
+    private static final MethodHandle PARALLEL_CLOSE;
+    //new QuantileSketch(), and its add(int) and quantile(double).
+    private static final MethodHandle NEW_SKETCH;
+    private static final MethodHandle SKETCH_ADD;
+    private static final MethodHandle SKETCH_QUANTILE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> selector = Class.forName("MedianSelector");
+            Class<?> strategy = Class.forName("MedianSelector$Strategy");
+            Class<?> parallelSelector = Class.forName("ParallelMedianSelector");
+            Class<?> sketch = Class.forName("QuantileSketch");
+            Class<?> mappedSelector = Class.forName("MappedMedianSelector");
+            Class<?> window = Class.forName("SlidingWindowMedian");
+
+            LOWER_MEDIAN = lookup.findStatic(selector, "lowerMedian",
+                    MethodType.methodType(int.class, int[].class));
+            LOWER_MEDIAN_WITH_STRATEGY = lookup.findStatic(selector, "lowerMedian",
+                    MethodType.methodType(int.class, int[].class, strategy))
+                    .asType(MethodType.methodType(int.class, int[].class, Object.class));
+            QUANTILES = lookup.findStatic(selector, "quantiles",
+                    MethodType.methodType(int[].class, int[].class, double[].class));
+            LOWER_MEDIAN_OF_LONGS = lookup.findStatic(selector, "lowerMedianOfLongs",
+                    MethodType.methodType(long.class, long[].class));
+            LOWER_MEDIAN_OF_DOUBLES = lookup.findStatic(selector, "lowerMedianOfDoubles",
+                    MethodType.methodType(double.class, double[].class));
+            LOWER_MEDIAN_OF_OBJECTS = lookup.findStatic(selector, "lowerMedian",
+                    MethodType.methodType(Object.class, Object[].class, Comparator.class));
+            AUTO = strategy.getField("AUTO").get(null);
+            QUICKSELECT = strategy.getField("QUICKSELECT").get(null);
+            MEDIAN_OF_MEDIANS = strategy.getField("MEDIAN_OF_MEDIANS").get(null);
+
+            NEW_PARALLEL_SELECTOR = lookup.findConstructor(parallelSelector,
+                    MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+            PARALLEL_LOWER_MEDIAN = lookup.findVirtual(parallelSelector, "lowerMedian",
+                    MethodType.methodType(int.class, int[].class))
+                    .asType(MethodType.methodType(int.class, Object.class, int[].class));
+            PARALLEL_CLOSE = lookup.findVirtual(parallelSelector, "close",
+                    MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(void.class, Object.class));
+
+            MAPPED_LOWER_MEDIAN = lookup.findStatic(mappedSelector, "lowerMedian",
+                    MethodType.methodType(int.class, Path.class));
+
+            NEW_WINDOW = lookup.findConstructor(window,
+                    MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            WINDOW_ADD = lookup.findVirtual(window, "add",
+                    MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class));
+            WINDOW_LOWER_MEDIAN = lookup.findVirtual(window, "lowerMedian",
+                    MethodType.methodType(int.class))
+                    .asType(MethodType.methodType(int.class, Object.class));
+
+            NEW_SKETCH = lookup.findConstructor(sketch, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            SKETCH_ADD = lookup.findVirtual(sketch, "add",
+                    MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class));
+            SKETCH_QUANTILE = lookup.findVirtual(sketch, "quantile",
+                    MethodType.methodType(int.class, double.class))
+                    .asType(MethodType.methodType(int.class, Object.class, double.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    //the input, which is never changed.
+    private int[] data;
+    //the array each invocation copies the input to and selects from.
+    private int[] work;
+    //the parallel selector, which owns a pool and thus lives as long as the benchmark.
+    private Object parallelSelector;
+
+    @Setup
+    public void setUp() throws Throwable {
+        data = createData(distribution, size, new Random(42));
+        work = new int[size];
+        parallelSelector = (Object) NEW_PARALLEL_SELECTOR.invokeExact();
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        PARALLEL_CLOSE.invokeExact(parallelSelector);
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Benchmarks
+
+    /**
+     * Only copies the input, which all other benchmarks do as well.
+     */
+    @Benchmark
+    public int[] copy() {
+        System.arraycopy(data, 0, work, 0, size);
+        return work;
+    }
+
+    /**
+     * The default, which is quickselect.
+     */
+    @Benchmark
+    public int lowerMedian() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN.invokeExact(work);
+    }
+
+    /**
+     * A histogram for large arrays with a small range, quickselect otherwise. Shows what the
+     * pass that finds out the range costs where the histogram does not pay off.
+     */
+    @Benchmark
+    public int auto() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN_WITH_STRATEGY.invokeExact(work, AUTO);
+    }
+
+    @Benchmark
+    public int quickselect() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN_WITH_STRATEGY.invokeExact(work, QUICKSELECT);
+    }
+
+    @Benchmark
+    public int medianOfMedians() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) LOWER_MEDIAN_WITH_STRATEGY.invokeExact(work, MEDIAN_OF_MEDIANS);
+    }
+
+    /**
+     * Three quantiles at once, which partitions the array once for all of them.
+     */
+    @Benchmark
+    public int[] quantiles() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int[]) QUANTILES.invokeExact(work, new double[] {0.5, 0.9, 0.99});
+    }
+
+    @Benchmark
+    public int parallel() throws Throwable {
+        System.arraycopy(data, 0, work, 0, size);
+        return (int) PARALLEL_LOWER_MEDIAN.invokeExact(parallelSelector, work);
+    }
+
+    @Benchmark
+    public long lowerMedianOfLongs(LongInput input) throws Throwable {
+        System.arraycopy(input.data, 0, input.work, 0, size);
+        return (long) LOWER_MEDIAN_OF_LONGS.invokeExact(input.work);
+    }
+
+    @Benchmark
+    public double lowerMedianOfDoubles(DoubleInput input) throws Throwable {
+        System.arraycopy(input.data, 0, input.work, 0, size);
+        return (double) LOWER_MEDIAN_OF_DOUBLES.invokeExact(input.work);
+    }
+
+    /**
+     * The generic selector on boxed numbers in their natural order, which pays for a comparator
+     * call and an indirection per comparison.
+     */
+    @Benchmark
+    public Object lowerMedianOfObjects(ObjectInput input) throws Throwable {
+        System.arraycopy(input.data, 0, input.work, 0, size);
+        return (Object) LOWER_MEDIAN_OF_OBJECTS.invokeExact((Object[]) input.work,
+                (Comparator) Comparator.naturalOrder());
+    }
+
+    /**
+     * Selects from a file instead of an array. The file is read twice, and after the first
+     * invocation it is usually in the page cache, so this measures the mapping and the passes
+     * rather than the disk.
+     */
+    @Benchmark
+    public int mapped(MappedInput input) throws Throwable {
+        return (int) MAPPED_LOWER_MEDIAN.invokeExact(input.file);
+    }
+
+    /**
+     * Streams the input through a sliding window and asks for its median after every sample,
+     * as a monitor would. The input is only read, so there is no copy.
+     */
+    @Benchmark
+    public long slidingWindow() throws Throwable {
+        Object window = (Object) NEW_WINDOW.invokeExact(WINDOW_SIZE);
+        long sum = 0;
+        for (int number : data) {
+            WINDOW_ADD.invokeExact(window, number);
+            sum += (int) WINDOW_LOWER_MEDIAN.invokeExact(window);
+        }
+        return sum;
+    }
+
+    /**
+     * Streams the input through an approximate sketch. The input is only read, so there is no
+     * copy.
+     */
+    @Benchmark
+    public int sketch() throws Throwable {
+        Object sketch = (Object) NEW_SKETCH.invokeExact();
+        for (int number : data) {
+            SKETCH_ADD.invokeExact(sketch, number);
+        }
+        return (int) SKETCH_QUANTILE.invokeExact(sketch, 0.5);
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Inputs of other types
+
+    /**
+     * The input as longs, which are only set up for the benchmarks that need them.
+     */
+    @State(Scope.Benchmark)
+    public static class LongInput {
+
+        //the input, which is never changed, and the array to select from.
+        long[] data;
+        long[] work;
+
+        @Setup
+        public void setUp(MedianSelectorBenchmark benchmark) {
+            data = new long[benchmark.size];
+            for (int i = 0; i < benchmark.size; i++) {
+                data[i] = benchmark.data[i];
+            }
+            work = new long[benchmark.size];
+        }
+    }
+
+    /**
+     * The input as doubles.
+     */
+    @State(Scope.Benchmark)
+    public static class DoubleInput {
+
+        //the input, which is never changed, and the array to select from.
+        double[] data;
+        double[] work;
+
+        @Setup
+        public void setUp(MedianSelectorBenchmark benchmark) {
+            data = new double[benchmark.size];
+            for (int i = 0; i < benchmark.size; i++) {
+                data[i] = benchmark.data[i];
+            }
+            work = new double[benchmark.size];
+        }
+    }
+
+    /**
+     * The input as boxed integers.
+     */
+    @State(Scope.Benchmark)
+    public static class ObjectInput {
+
+        //the input, which is never changed, and the array to select from.
+        Integer[] data;
+        Integer[] work;
+
+        @Setup
+        public void setUp(MedianSelectorBenchmark benchmark) {
+            data = new Integer[benchmark.size];
+            for (int i = 0; i < benchmark.size; i++) {
+                data[i] = benchmark.data[i];
+            }
+            work = new Integer[benchmark.size];
+        }
+    }
+
+    /**
+     * The input as a temporary file of big-endian 32-bit integers.
+     */
+    @State(Scope.Benchmark)
+    public static class MappedInput {
+
+        //the file, which is deleted after the benchmark.
+        Path file;
+
+        @Setup
+        public void setUp(MedianSelectorBenchmark benchmark) throws IOException {
+            file = Files.createTempFile("median", ".bin");
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                for (int number : benchmark.data) {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        channel.write(buffer);
+                        buffer.clear();
+                    }
+                    buffer.putInt(number);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Utilities
+
+    /**
+     * Creates an array with the given number of elements laid out in the given way.
+     */
+    static int[] createData(Distribution distribution, int size, Random random) {
+        int[] numbers = new int[size];
+
+        switch (distribution) {
+            case RANDOM:
+                for (int i = 0; i < size; i++) {
+                    numbers[i] = random.nextInt();
+                }
+                break;
+            case SORTED:
+                for (int i = 0; i < size; i++) {
+                    numbers[i] = i;
+                }
+                break;
+            case REVERSE:
+                for (int i = 0; i < size; i++) {
+                    numbers[i] = size - i;
+                }
+                break;
+            case ORGAN_PIPE:
+                for (int i = 0; i < size; i++) {
+                    numbers[i] = i < size / 2 ? i : size - i;
+                }
+                break;
+            case MANY_DUPLICATES:
+                for (int i = 0; i < size; i++) {
+                    numbers[i] = random.nextInt(10);
+                }
+                break;
+            case SMALL_RANGE:
+                for (int i = 0; i < size; i++) {
+                    numbers[i] = random.nextInt(1 << 16);
+                }
+                break;
+            case MEDIAN_OF_3_KILLER:
+                //for k = size / 2 and i = 1..k (1-based): odd i put i and k + i at positions i
+                //and i + 1, and every i puts 2i at position k + i. The sizes we use are even.
+                int k = size / 2;
+                for (int i = 1; i <= k; i++) {
+                    if (i % 2 == 1) {
+                        numbers[i - 1] = i;
+                        numbers[i] = k + i;
+                    }
+                    numbers[k + i - 1] = 2 * i;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown distribution " + distribution);
+        }
+
+        return numbers;
+    }
+
+    /**
+     * Runs all benchmarks of this class with the GC profiler.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MedianSelectorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class AirportGraphTest {
+
+	@Test
+	public void testNull() {
+		assertThrows(IllegalArgumentException.class, () -> AirportGraph.compile(null));
+	}
+
+	@Test
+	public void testRoutes() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		jav.getDestinations().add(las);
+		jav.getDestinations().add(fnj);
+		las.getDestinations().add(jav);
+
+		AirportGraph graph = AirportGraph.compile(Arrays.asList(jav, las, fnj));
+
+		assertEquals(3, graph.size());
+		assertEquals(3, graph.getGivenCount());
+		assertEquals(3, graph.getRouteCount());
+		for (int id = 0; id < graph.size(); id++) {
+			Airport airport = graph.getAirport(id);
+			assertEquals(id, graph.getId(airport));
+			assertEquals(id, graph.getId(airport.getIataDesignation()));
+			assertEquals(airport.getDestinations(), destinations(graph, id));
+		}
+	}
+
+	@Test
+	public void testDestinationsOutsideCollection() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("fnj");
+		jav.getDestinations().add(las);
+		las.getDestinations().add(fnj);
+
+		AirportGraph graph = AirportGraph.compile(Arrays.asList(jav));
+
+		// Destinations follow the given airports, in the order they are found
+		assertEquals(3, graph.size());
+		assertEquals(1, graph.getGivenCount());
+		assertSame(jav, graph.getAirport(0));
+		assertSame(las, graph.getAirport(1));
+		assertSame(fnj, graph.getAirport(2));
+		assertEquals(-1, graph.getId("FNJ"));
+		assertThrows(IllegalArgumentException.class, () -> graph.getId("FN"));
+		assertThrows(IllegalArgumentException.class, () -> graph.getId("F[J"));
+		assertThrows(IllegalArgumentException.class, () -> graph.getId((String) null));
+	}
+
+	@Test
+	public void testManyAirports() {
+		// The code table starts small and has to grow while destinations are found
+		List<Airport> airports = new ArrayList<>();
+		for (char first = 'A'; first <= 'z'; first = first == 'Z' ? 'a' : (char) (first + 1)) {
+			for (char second = 'A'; second <= 'Z'; second++) {
+				airports.add(new Airport("" + first + second + 'X'));
+			}
+		}
+		Airport hub = airports.get(0);
+		hub.getDestinations().addAll(airports);
+
+		AirportGraph graph = AirportGraph.compile(Arrays.asList(hub));
+
+		assertEquals(airports.size(), graph.size());
+		for (int id = 0; id < graph.size(); id++) {
+			assertEquals(id, graph.getId(graph.getAirport(id)));
+			assertEquals(id, graph.getId(graph.getAirport(id).getIataDesignation()));
+		}
+		assertEquals(-1, graph.getId("AAY"));
+	}
+
+	/**
+	 * Returns the destinations of the airport with the given id, as compiled.
+	 */
+	private static Set<Airport> destinations(AirportGraph graph, int id) {
+		List<Airport> destinations = new ArrayList<>();
+		for (int route = graph.getRouteStart(id); route < graph.getRouteEnd(id); route++) {
+			destinations.add(graph.getAirport(graph.getTarget(route)));
+		}
+		assertEquals(destinations.size(), new HashSet<>(destinations).size());
+		return new HashSet<>(destinations);
+	}
+
+}
@@ -1,4 +1,5 @@
-import java.util.*;
+import java.util.Arrays;
+import java.util.Set;
 
 public class AirportReachabilityCalculator {
     /**
@@ -7,11 +8,17 @@ public class AirportReachabilityCalculator {
      * must hold that there is a directed path from each other airport {@code b} to
      * {@code a}.
      *
-     * @param airports the set of airports.
+     * <p>Runs in {@code O(V + E)}: the strongly connected components of the route
+     * network are computed, and airports in the same component reach each other. Every
+     * component reaches one that reaches no other component with an airport of the set,
+     * so the airports are always reachable exactly if they are in the only such
+     * component. Destinations that are not in the set may be part of paths, but are
+     * never part of the result.</p>
+     *
+     * @param airports the set of airports, which is reduced to the result.
      * @return the set of always reachable airports.
      * @throws IllegalArgumentException if {@code airports} is {@code null}.
      */
-
     public static Set<Airport> findAlwaysReachableAirports(Set<Airport> airports) {
         //check if the airports is null
         if (airports == null) {
@@ -22,62 +29,113 @@ public class AirportReachabilityCalculator {
             return airports;
         }
 
-        //List for all airport names to compare and delete of.
-        Set<String> allAirports = new HashSet<>();
+        //number the airports, those of the set first, and collect their routes.
+        AirportGraph graph = AirportGraph.compile(airports);
 
-        //read out all possible airports by name.
-        for (Airport airport : airports) {
-            allAirports.add(airport.getIataDesignation());
-        }
+        //find the component that reaches no other component with an airport of the set.
+        int[] components = findComponents(new AirportTraversal(graph));
+        int sink = components[graph.size()];
+
+        //delete all airports of other components (or all, if there is none)
+        airports.removeIf(airport -> components[graph.getId(airport)] != sink);
+        return airports;
+    }
+
+    /**
+     * Computes the strongly connected components of the traversal's graph with Tarjan's
+     * algorithm, on the events of its depth-first traversals. The airports given to the graph
+     * are those of the set.
+     *
+     * @return the component of each airport, followed by one more element: the only
+     * component with airports of the set that reaches no other such component, or
+     * {@code -1} if there is none or more than one.
+     */
+    private static int[] findComponents(AirportTraversal traversal) {
+        AirportGraph graph = traversal.getGraph();
+        int n = graph.size();
+        int setSize = graph.getGivenCount();
+        //the component of each airport, or -1 while it has none.
+        int[] components = new int[n + 1];
+        Arrays.fill(components, -1);
+        //the order in which airports were discovered (from 1), and the lowest one reachable
+        //through the airports on the stack.
+        int[] discovered = new int[n];
+        int[] lowest = new int[n];
+        //the airports without component yet, in the order of discovery.
+        int[] stack = new int[n];
+        int stackSize = 0;
+        //whether each component has airports of the set, or reaches another that has.
+        boolean[] inSet = new boolean[n];
+        boolean[] reachesSet = new boolean[n];
 
-        //go through all the airports and check on the reachable airports.
-        for (Airport airport : airports) {
-
-            //create a list were all possible destinations of the given airport can be saved.
-            Set<String> possibleDestinations = new HashSet<>();
-            //create a list of to check elements.
-            ArrayList<Airport> toCheck = new ArrayList<>();
-
-            //save the current airport.
-            possibleDestinations.add(airport.getIataDesignation());
-            //add the destinations of the current airport.
-            toCheck.addAll(airport.getDestinations());
-
-            //go through the list of to check destinations and add more destinations if needed until the whole list
-            // is checked.
-            for (int i = 0; ; i++) {
-                //end the loop if the whole list is checked
-                if (i == toCheck.size()) {
-                    break;
+        int discoveries = 0;
+        int componentCount = 0;
+        int sink = -1;
+        int sinkCount = 0;
+
+        traversal.reset();
+        for (int root = 0; root < setSize; root++) {
+            if (!traversal.startDepthFirst(root)) {
+                continue;
+            }
+
+            for (int event = traversal.nextDepthFirst(); event != AirportTraversal.DONE;
+                    event = traversal.nextDepthFirst()) {
+                int current = traversal.getAirport();
+                int neighbour = traversal.getNeighbour();
+
+                if (event == AirportTraversal.ENTER) {
+                    discovered[current] = lowest[current] = ++discoveries;
+                    stack[stackSize++] = current;
+                    continue;
                 }
 
-                //get the current item of the list
-                Airport current = toCheck.get(i);
+                if (event == AirportTraversal.REVISIT) {
+                    //routes to finished components do not lead back.
+                    if (components[neighbour] == -1) {
+                        lowest[current] = Math.min(lowest[current], discovered[neighbour]);
+                    }
+                    continue;
+                }
 
-                //check through the destinations till there is a already reached destination
-                while (!possibleDestinations.contains(current.getIataDesignation())) {
-                    possibleDestinations.add(current.getIataDesignation());
-                    toCheck.addAll(current.getDestinations());
+                //the traversal leaves the airport and goes back to its parent.
+                if (neighbour != -1) {
+                    lowest[neighbour] = Math.min(lowest[neighbour], lowest[current]);
                 }
-            }
-            allAirports.retainAll(possibleDestinations);
-        }
 
-        //the set of airports which are reachable from every airport
-        Set<Airport> finalSet = new HashSet<>();
+                if (lowest[current] == discovered[current]) {
+                    //the airports above it on the stack form a component. All components
+                    //they reach are finished, so we know whether any of these has airports
+                    //of the set.
+                    int component = componentCount++;
+                    int end = stackSize;
+                    do {
+                        stackSize -= 1;
+                        components[stack[stackSize]] = component;
+                        inSet[component] |= stack[stackSize] < setSize;
+                    } while (stack[stackSize] != current);
 
-        //convert the airport strings back to a set of airport sets
-        for (String airportSting : allAirports) {
-            for (Airport airport : airports) {
-                if (airport.getIataDesignation() == airportSting) {
-                    finalSet.add(airport);
+                    for (int i = stackSize; i < end; i++) {
+                        int member = stack[i];
+                        for (int route = graph.getRouteStart(member);
+                                route < graph.getRouteEnd(member); route++) {
+                            int other = components[graph.getTarget(route)];
+                            if (other != component && (inSet[other] || reachesSet[other])) {
+                                reachesSet[component] = true;
+                            }
+                        }
+                    }
+
+                    if (inSet[component] && !reachesSet[component]) {
+                        sink = component;
+                        sinkCount += 1;
+                    }
                 }
             }
         }
 
-        //delete all not reachable airports of the list of all airports
-        airports.retainAll(finalSet);
-        return airports;
+        components[n] = sinkCount == 1 ? sink : -1;
+        return components;
     }
 
 }
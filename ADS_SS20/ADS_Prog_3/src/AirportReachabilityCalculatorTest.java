@@ -139,6 +139,47 @@ public class AirportReachabilityCalculatorTest {
 		performTest(testData);
 	}
 
+	@Test
+	public void testLongString() {
+		// Uses every possible IATA code, so that a recursive search would run out of stack
+		String letters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+		List<Airport> string = new ArrayList<>();
+		for (char first : letters.toCharArray()) {
+			for (char second : letters.toCharArray()) {
+				for (char third : letters.toCharArray()) {
+					string.add(new Airport("" + first + second + third));
+				}
+			}
+		}
+
+		for (int i = 1; i < string.size(); i++) {
+			string.get(i - 1).getDestinations().add(string.get(i));
+		}
+
+		Set<Airport> airports = new HashSet<>(string);
+		Set<Airport> expected = Collections.singleton(string.get(string.size() - 1));
+		if (!expected.equals(AirportReachabilityCalculator.findAlwaysReachableAirports(airports))) {
+			fail("Only the last airport of a long string is always reachable.");
+		}
+	}
+
+	@Test
+	public void testDestinationsOutsideSet() {
+		// Routes through airports that are not in the set still count, but such airports are
+		// never part of the solution
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		jav.getDestinations().add(fnj);
+		fnj.getDestinations().add(las);
+
+		Set<Airport> airports = new HashSet<>(Arrays.asList(jav, las));
+		if (!Collections.singleton(las).equals(
+				AirportReachabilityCalculator.findAlwaysReachableAirports(airports))) {
+			fail("LAS is reachable from JAV via FNJ, which is not part of the set.");
+		}
+	}
+
 	////////////////////////////////////////////////////////////////////////////////////////////
 	// Running Tests
 
@@ -357,4 +398,4 @@ public class AirportReachabilityCalculatorTest {
 
 	}
 	
-}
\ No newline at end of file
+}
\ No newline at end of file
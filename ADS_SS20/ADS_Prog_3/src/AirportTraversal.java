@@ -0,0 +1,236 @@
+import java.util.Arrays;
+
+/**
+ * Breadth-first and depth-first traversals of an {@link AirportGraph}, without recursion, so
+ * that long chains of routes cannot overflow the stack. The queue and the path are plain
+ * {@code int} arrays, and airports are marked as visited by stamping them with the current
+ * epoch: {@link #reset()} only starts a new epoch instead of clearing anything. An instance
+ * thus allocates nothing after construction and can be shared by algorithms that traverse the
+ * same graph many times.
+ *
+ * <p>All traversals of an epoch share the visited airports: a traversal never enters an
+ * airport that an earlier one of the same epoch has visited. {@link #getVisited(int)} lists
+ * the visited airports in the order they were entered.</p>
+ *
+ * <p>Depth-first traversals report events one by one, which lets algorithms like Tarjan's do
+ * their own bookkeeping: {@link #startDepthFirst(int)} starts one, and
+ * {@link #nextDepthFirst()} returns each event until it returns {@link #DONE}. Instances are
+ * not thread-safe.</p>
+ */
+public final class AirportTraversal {
+
+    /** Event of the depth-first traversal: it is finished. */
+    public static final int DONE = 0;
+    /**
+     * Event of the depth-first traversal: {@link #getAirport()} was entered for the first time,
+     * via a route from {@link #getNeighbour()}, which is {@code -1} for the start airport.
+     */
+    public static final int ENTER = 1;
+    /**
+     * Event of the depth-first traversal: a route from {@link #getAirport()} leads to
+     * {@link #getNeighbour()}, which has been visited before.
+     */
+    public static final int REVISIT = 2;
+    /**
+     * Event of the depth-first traversal: all routes of {@link #getAirport()} have been
+     * followed, and the traversal goes back to {@link #getNeighbour()}, which is {@code -1} for
+     * the start airport.
+     */
+    public static final int LEAVE = 3;
+
+    //the graph we traverse.
+    private final AirportGraph graph;
+    //the epoch each airport was last visited in, and the current one.
+    private final int[] visitedEpochs;
+    private int epoch = 1;
+    //the airports visited in this epoch, in the order they were entered. Breadth-first
+    //traversals use the airports after the head as their queue.
+    private final int[] visited;
+    private int visitedCount = 0;
+    //the path of the depth-first traversal, and the next route to follow from each airport.
+    private final int[] path;
+    private final int[] nextRoute;
+    private int pathLength = 0;
+    //whether the start of the depth-first traversal is yet to be reported.
+    private boolean startPending = false;
+    //the airports of the last event.
+    private int airport = -1;
+    private int neighbour = -1;
+
+    /**
+     * Creates a traversal of the given graph, with no airports visited.
+     *
+     * @param graph the graph to traverse.
+     * @throws IllegalArgumentException if {@code graph} is {@code null}.
+     */
+    public AirportTraversal(AirportGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("graph must not be null.");
+        }
+
+        this.graph = graph;
+        visitedEpochs = new int[graph.size()];
+        visited = new int[graph.size()];
+        path = new int[graph.size()];
+        nextRoute = new int[graph.size()];
+    }
+
+    /**
+     * Returns the graph this traverses.
+     */
+    public AirportGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Starts a new epoch, in which no airport has been visited yet. Aborts a depth-first
+     * traversal that is not finished.
+     */
+    public void reset() {
+        if (epoch == Integer.MAX_VALUE) {
+            //the stamps would repeat, so clear them for once.
+            Arrays.fill(visitedEpochs, 0);
+            epoch = 0;
+        }
+        epoch += 1;
+        visitedCount = 0;
+        pathLength = 0;
+        startPending = false;
+    }
+
+    /**
+     * Checks whether the airport with the given id was visited in this epoch.
+     */
+    public boolean isVisited(int id) {
+        return visitedEpochs[id] == epoch;
+    }
+
+    /**
+     * Returns the number of airports visited in this epoch.
+     */
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    /**
+     * Returns the id of the airport that was visited at the given index in this epoch, from
+     * {@code 0} to {@link #getVisitedCount()} (excl).
+     */
+    public int getVisited(int index) {
+        return visited[index];
+    }
+
+    /**
+     * Visits all airports reachable from the given one breadth-first, except those visited
+     * before in this epoch.
+     *
+     * @param source the id of the airport to start from.
+     * @return the number of airports this visited, which are the last ones of
+     * {@link #getVisited(int)}.
+     */
+    public int breadthFirst(int source) {
+        if (!visit(source)) {
+            return 0;
+        }
+
+        int start = visitedCount - 1;
+        for (int head = start; head < visitedCount; head++) {
+            int current = visited[head];
+            for (int route = graph.getRouteStart(current); route < graph.getRouteEnd(current);
+                    route++) {
+                visit(graph.getTarget(route));
+            }
+        }
+        return visitedCount - start;
+    }
+
+    /**
+     * Starts a depth-first traversal from the given airport, unless it was visited before in
+     * this epoch. Aborts a depth-first traversal that is not finished.
+     *
+     * @param source the id of the airport to start from.
+     * @return whether the traversal was started; if so, its first event is entering the source.
+     */
+    public boolean startDepthFirst(int source) {
+        pathLength = 0;
+        startPending = false;
+        if (!visit(source)) {
+            return false;
+        }
+
+        path[pathLength++] = source;
+        nextRoute[source] = graph.getRouteStart(source);
+        startPending = true;
+        return true;
+    }
+
+    /**
+     * Takes the next step of the depth-first traversal and returns what happened, one of
+     * {@link #ENTER}, {@link #REVISIT}, {@link #LEAVE} and, once all airports reachable from
+     * the start have been left, {@link #DONE}. {@link #getAirport()} and
+     * {@link #getNeighbour()} tell the airports of the event.
+     */
+    public int nextDepthFirst() {
+        if (startPending) {
+            startPending = false;
+            return event(ENTER, path[0], -1);
+        }
+
+        if (pathLength == 0) {
+            return event(DONE, -1, -1);
+        }
+
+        int current = path[pathLength - 1];
+        if (nextRoute[current] < graph.getRouteEnd(current)) {
+            //follow the next route, unless it leads to a visited airport.
+            int target = graph.getTarget(nextRoute[current]++);
+            if (!visit(target)) {
+                return event(REVISIT, current, target);
+            }
+            path[pathLength++] = target;
+            nextRoute[target] = graph.getRouteStart(target);
+            return event(ENTER, target, current);
+        }
+
+        //all routes are followed, so go back.
+        pathLength -= 1;
+        return event(LEAVE, current, pathLength > 0 ? path[pathLength - 1] : -1);
+    }
+
+    /**
+     * Returns the airport of the last event of the depth-first traversal.
+     */
+    public int getAirport() {
+        return airport;
+    }
+
+    /**
+     * Returns the other airport of the last event of the depth-first traversal, if any.
+     */
+    public int getNeighbour() {
+        return neighbour;
+    }
+
+    /**
+     * Marks the airport as visited, unless it was visited before in this epoch, and returns
+     * whether it was not.
+     */
+    private boolean visit(int id) {
+        if (visitedEpochs[id] == epoch) {
+            return false;
+        }
+        visitedEpochs[id] = epoch;
+        visited[visitedCount++] = id;
+        return true;
+    }
+
+    /**
+     * Remembers the airports of an event and returns its type.
+     */
+    private int event(int type, int airport, int neighbour) {
+        this.airport = airport;
+        this.neighbour = neighbour;
+        return type;
+    }
+
+}
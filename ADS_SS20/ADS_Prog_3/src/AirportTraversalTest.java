@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class AirportTraversalTest {
+
+	@Test
+	public void testBreadthFirst() {
+		AirportTraversal traversal = new AirportTraversal(AirportGraph.compile(createDiamond()));
+
+		// JAV reaches all airports, level by level, so FNJ is last
+		assertEquals(4, traversal.breadthFirst(0));
+		assertEquals(0, traversal.getVisited(0));
+		assertEquals(3, traversal.getVisited(3));
+
+		// Visited airports are not visited again until the next epoch
+		assertEquals(0, traversal.breadthFirst(1));
+		traversal.reset();
+		assertFalse(traversal.isVisited(0));
+		assertEquals(4, traversal.breadthFirst(1));
+		assertEquals(1, traversal.getVisited(0));
+		assertEquals(3, traversal.getVisited(1));
+		assertEquals(4, traversal.getVisitedCount());
+	}
+
+	@Test
+	public void testDepthFirstEvents() {
+		AirportTraversal traversal = new AirportTraversal(AirportGraph.compile(createDiamond()));
+
+		assertTrue(traversal.startDepthFirst(0));
+		int[] counts = new int[4];
+		List<String> events = new ArrayList<>();
+		for (int event = traversal.nextDepthFirst(); event != AirportTraversal.DONE;
+				event = traversal.nextDepthFirst()) {
+			counts[event] += 1;
+			events.add(event + ":" + traversal.getAirport() + ":" + traversal.getNeighbour());
+		}
+
+		// Each airport is entered and left once. FNJ's route back to JAV and the second way to
+		// FNJ lead to visited airports
+		assertArrayEquals(new int[] {0, 4, 2, 4}, counts);
+		assertEquals("1:0:-1", events.get(0));
+		assertEquals("3:0:-1", events.get(events.size() - 1));
+		assertTrue(events.contains("2:3:0"));
+		assertFalse(traversal.startDepthFirst(2));
+	}
+
+	@Test
+	public void testLongString() {
+		// Would run out of stack if the traversal was recursive
+		String letters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+		List<Airport> string = new ArrayList<>();
+		for (char first : letters.toCharArray()) {
+			for (char second : letters.toCharArray()) {
+				for (char third : letters.toCharArray()) {
+					string.add(new Airport("" + first + second + third));
+				}
+			}
+		}
+
+		for (int i = 1; i < string.size(); i++) {
+			string.get(i - 1).getDestinations().add(string.get(i));
+		}
+
+		AirportTraversal traversal = new AirportTraversal(AirportGraph.compile(string));
+		traversal.startDepthFirst(0);
+		int depth = 0;
+		int maxDepth = 0;
+		for (int event = traversal.nextDepthFirst(); event != AirportTraversal.DONE;
+				event = traversal.nextDepthFirst()) {
+			depth += event == AirportTraversal.ENTER ? 1 : event == AirportTraversal.LEAVE ? -1 : 0;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+
+		assertEquals(string.size(), maxDepth);
+		assertEquals(string.size(), traversal.getVisitedCount());
+	}
+
+	/**
+	 * Creates JAV with routes to LAS and IKT, both of which lead on to FNJ, which leads back to
+	 * JAV. The airports get the ids 0 to 3 in this order.
+	 */
+	private static List<Airport> createDiamond() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport ikt = new Airport("IKT");
+		Airport fnj = new Airport("FNJ");
+		jav.getDestinations().add(las);
+		jav.getDestinations().add(ikt);
+		las.getDestinations().add(fnj);
+		ikt.getDestinations().add(fnj);
+		fnj.getDestinations().add(jav);
+		return Arrays.asList(jav, las, ikt, fnj);
+	}
+
+}
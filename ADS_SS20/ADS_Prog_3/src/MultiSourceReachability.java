@@ -0,0 +1,187 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes which airports are reachable from each of many source airports, such as a few
+ * thousand hubs, on a {@link ForkJoinPool}. Instead of one breadth-first search per source,
+ * the sources are searched from in blocks of 64 at once: every airport holds a {@code long} in
+ * which bit {@code i} is set once source {@code i} of the block has reached it, and each level
+ * of the search pushes the bits that are new at an airport along its routes with a few word
+ * operations. The blocks are independent and are searched in parallel.
+ *
+ * <p>An airport passes on its bits only in levels in which new ones arrived, so at most 64
+ * times per block. A block thus costs at most as much as 64 separate searches, but usually
+ * little more than one, since the searches of a block share most of their frontiers.</p>
+ *
+ * <p>Instances own a pool and should be closed once they are no longer needed. They can be
+ * used by several threads at once.</p>
+ */
+public class MultiSourceReachability implements AutoCloseable {
+
+    //number of sources searched from at once, one per bit of a long.
+    private static final int BLOCK_SIZE = 64;
+
+    //the pool our blocks run on.
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new instance that uses as many threads as there are processors.
+     */
+    public MultiSourceReachability() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new instance with the given parallelism level.
+     *
+     * @param parallelism the number of threads to search with {@code > 0}.
+     * @throws IllegalArgumentException if the parallelism is not positive.
+     */
+    public MultiSourceReachability(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Computes which airports of the graph are reachable from each of the given sources.
+     *
+     * @param graph   the graph to search.
+     * @param sources the ids of the airports to search from, in the order of their indices in
+     *                the result.
+     * @return the reachability of all airports from each source.
+     * @throws IllegalArgumentException if any of the parameters is {@code null}, or if a
+     * source is not an airport of the graph.
+     */
+    public ReachabilityMatrix compute(AirportGraph graph, int... sources) {
+        if (graph == null || sources == null) {
+            throw new IllegalArgumentException("graph and sources must not be null.");
+        }
+
+        for (int source : sources) {
+            if (source < 0 || source >= graph.size()) {
+                throw new IllegalArgumentException(source + " is not an airport of the graph.");
+            }
+        }
+
+        ReachabilityMatrix matrix = new ReachabilityMatrix(sources.clone(), graph.size());
+        if (matrix.getBlockCount() > 0) {
+            pool.invoke(new BlockTask(graph, matrix, 0, matrix.getBlockCount() - 1));
+        }
+        return matrix;
+    }
+
+    /**
+     * Shuts down this instance's pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Searching
+
+    /**
+     * Searches from a range of blocks of sources, splitting the range in halves until each
+     * half consists of one block.
+     */
+    private static final class BlockTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        //the graph to search.
+        private final AirportGraph graph;
+        //where the results go.
+        private final ReachabilityMatrix matrix;
+        //first block to search from.
+        private final int from;
+        //last block to search from (incl).
+        private final int to;
+
+        private BlockTask(AirportGraph graph, ReachabilityMatrix matrix, int from, int to) {
+            this.graph = graph;
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (from == to) {
+                search(graph, matrix, from);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BlockTask(graph, matrix, from, middle),
+                        new BlockTask(graph, matrix, middle + 1, to));
+            }
+        }
+    }
+
+    /**
+     * Searches from all sources of the given block at once, level by level, and stores which
+     * of them reach each airport in the matrix.
+     */
+    private static void search(AirportGraph graph, ReachabilityMatrix matrix, int block) {
+        int n = graph.size();
+        //the sources that have reached each airport, in the matrix.
+        long[] seen = matrix.getWords();
+        int offset = block * n;
+        //the sources that reached each airport in the current and in the next level.
+        long[] frontier = new long[n];
+        long[] nextFrontier = new long[n];
+        //the airports with bits in the frontiers.
+        int[] active = new int[n];
+        int[] nextActive = new int[n];
+        int activeCount = 0;
+
+        //every source reaches itself in the first level.
+        int firstSource = block * BLOCK_SIZE;
+        int lastSource = Math.min(matrix.getSourceCount(), firstSource + BLOCK_SIZE) - 1;
+        for (int index = firstSource; index <= lastSource; index++) {
+            int source = matrix.getSource(index);
+            if (frontier[source] == 0) {
+                active[activeCount++] = source;
+            }
+            frontier[source] |= 1L << index;
+            seen[offset + source] |= 1L << index;
+        }
+
+        while (activeCount > 0) {
+            int nextCount = 0;
+
+            for (int a = 0; a < activeCount; a++) {
+                int current = active[a];
+                long bits = frontier[current];
+                frontier[current] = 0;
+
+                //pass on the sources that are new at the destinations.
+                for (int route = graph.getRouteStart(current); route < graph.getRouteEnd(current);
+                        route++) {
+                    int target = graph.getTarget(route);
+                    long newBits = bits & ~seen[offset + target];
+                    if (newBits != 0) {
+                        if (nextFrontier[target] == 0) {
+                            nextActive[nextCount++] = target;
+                        }
+                        nextFrontier[target] |= newBits;
+                        seen[offset + target] |= newBits;
+                    }
+                }
+            }
+
+            //the next level becomes the current one.
+            long[] frontierSwap = frontier;
+            frontier = nextFrontier;
+            nextFrontier = frontierSwap;
+            int[] activeSwap = active;
+            active = nextActive;
+            nextActive = activeSwap;
+            activeCount = nextCount;
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class MultiSourceReachabilityTest {
+
+	@Test
+	public void testExample() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		jav.getDestinations().add(las);
+		las.getDestinations().add(jav);
+		las.getDestinations().add(fnj);
+		AirportGraph graph = AirportGraph.compile(Arrays.asList(jav, las, fnj));
+
+		try (MultiSourceReachability reachability = new MultiSourceReachability(2)) {
+			ReachabilityMatrix matrix = reachability.compute(graph, 2, 0);
+
+			assertEquals(2, matrix.getSourceCount());
+			assertEquals(2, matrix.getSource(0));
+			assertEquals(1, matrix.countReachable(0));
+			assertTrue(matrix.isReachable(0, 2));
+			assertFalse(matrix.isReachable(0, 0));
+			assertEquals(3, matrix.countReachable(1));
+
+			assertEquals(0, reachability.compute(graph).getSourceCount());
+			assertThrows(IllegalArgumentException.class, () -> reachability.compute(graph, 3));
+		}
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(42);
+
+		try (MultiSourceReachability reachability = new MultiSourceReachability(4)) {
+			for (int round = 0; round < 20; round++) {
+				// Enough airports and sources for several blocks, some of them repeated
+				List<Airport> airports = new ArrayList<>();
+				for (int i = 0; i < 200 + random.nextInt(200); i++) {
+					airports.add(new Airport("" + (char) ('A' + i / 676)
+							+ (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26)));
+				}
+				for (int i = random.nextInt(3 * airports.size()); i > 0; i--) {
+					airports.get(random.nextInt(airports.size())).getDestinations()
+							.add(airports.get(random.nextInt(airports.size())));
+				}
+				AirportGraph graph = AirportGraph.compile(airports);
+				int[] sources = new int[random.nextInt(300)];
+				for (int i = 0; i < sources.length; i++) {
+					sources[i] = random.nextInt(graph.size());
+				}
+
+				ReachabilityMatrix matrix = reachability.compute(graph, sources);
+
+				// Compare with a breadth-first search per source
+				AirportTraversal traversal = new AirportTraversal(graph);
+				for (int index = 0; index < sources.length; index++) {
+					traversal.reset();
+					assertEquals(traversal.breadthFirst(sources[index]),
+							matrix.countReachable(index));
+					for (int airport = 0; airport < graph.size(); airport++) {
+						assertEquals(traversal.isVisited(airport),
+								matrix.isReachable(index, airport));
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Which airports of an {@link AirportGraph} are reachable from each of a number of source
+ * airports, as computed by {@link MultiSourceReachability}. The relation is stored as bits:
+ * the sources are split into blocks of 64, and each airport has one {@code long} per block, in
+ * which bit {@code i} tells whether the airport is reachable from source {@code i} of the
+ * block. This takes {@code V} bits per source.
+ *
+ * <p>Every source reaches itself.</p>
+ */
+public final class ReachabilityMatrix {
+
+    //the ids of the sources.
+    private final int[] sources;
+    //number of airports in the graph.
+    private final int airportCount;
+    //the bits of each block of sources, for all airports of the graph one after another.
+    private final long[] words;
+
+    /**
+     * Creates an empty matrix for the given sources and number of airports.
+     */
+    ReachabilityMatrix(int[] sources, int airportCount) {
+        this.sources = sources;
+        this.airportCount = airportCount;
+        this.words = new long[getBlockCount() * airportCount];
+    }
+
+    /**
+     * Returns the number of sources.
+     */
+    public int getSourceCount() {
+        return sources.length;
+    }
+
+    /**
+     * Returns the number of airports of the graph.
+     */
+    public int getAirportCount() {
+        return airportCount;
+    }
+
+    /**
+     * Returns the id of the source with the given index.
+     */
+    public int getSource(int index) {
+        return sources[index];
+    }
+
+    /**
+     * Checks whether the airport with the given id is reachable from the source with the given
+     * index.
+     */
+    public boolean isReachable(int sourceIndex, int airport) {
+        long word = words[(sourceIndex >>> 6) * airportCount + airport];
+        return (word & (1L << sourceIndex)) != 0;
+    }
+
+    /**
+     * Returns the number of airports reachable from the source with the given index, including
+     * itself.
+     */
+    public int countReachable(int sourceIndex) {
+        int offset = (sourceIndex >>> 6) * airportCount;
+        long bit = 1L << sourceIndex;
+        int count = 0;
+        for (int airport = 0; airport < airportCount; airport++) {
+            count += (words[offset + airport] & bit) != 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of blocks of 64 sources.
+     */
+    int getBlockCount() {
+        return (sources.length + 63) >>> 6;
+    }
+
+    /**
+     * Returns the array of all bits, in which the given block's start at
+     * {@code block * getAirportCount()}.
+     */
+    long[] getWords() {
+        return words;
+    }
+
+}
@@ -0,0 +1,886 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the airports that are reachable from all others, like
+ * {@link AirportReachabilityCalculator#findAlwaysReachableAirports(Set)}, while routes are added
+ * and removed. The tracker maintains the strongly connected components of the network and the
+ * number of routes leaving each; the always reachable airports are those of the only component
+ * no route leaves, if there is exactly one. Queries thus take {@code O(1)}.
+ *
+ * <p>Routes must be changed through {@link #addRoute(Airport, Airport)} and
+ * {@link #removeRoute(Airport, Airport)}, which change the airports' destinations and update the
+ * components. The tracker also keeps a topological order of the components. A new route
+ * between different components costs {@code O(1)} if it leads forward in that order.
+ * Otherwise, only the components between its target and its source in the order are
+ * searched, like Pearce and Kelly do, but in one direction only: from the smaller of the two
+ * components, forward from the target or backward from the source, never expanding the
+ * other one. The components found then move past the other one, or, if the route closes
+ * cycles, those on the cycles are merged. Removing a route between different components
+ * costs {@code O(1)}. Removing a route within a component searches that component, and
+ * splits it if it is no longer strongly connected; the parts take its place in the
+ * order. The places in the order are labelled so that they compare in {@code O(1)}; when
+ * there is no label left between two places, all are labelled anew in {@code O(c)} for
+ * {@code c} components.</p>
+ *
+ * <p>Merged components take over the airports of the smaller ones into the largest, and the
+ * routes leaving the merged component are counted from the routes of the airports that move.
+ * So while routes are only added, each airport changes its component at most {@code log n}
+ * times, and all merges take {@code O((n + m) log n)} in total besides the searches, for
+ * {@code n} tracked airports and {@code m} routes.</p>
+ *
+ * <p>The tracked network must be closed: all destinations of its airports must be tracked as
+ * well. Instances are not thread-safe.</p>
+ */
+public class ReachabilityTracker {
+
+    //the distance between neighbouring labels after they are handed out anew, and the
+    //labels taken to be before the first slot and after the last one.
+    private static final long LABEL_GAP = 1L << 24;
+    private static final long MIN_LABEL = -(Long.MAX_VALUE / 2);
+    private static final long MAX_LABEL = Long.MAX_VALUE / 2;
+
+    //the airports by id, and the id of each airport.
+    private final List<Airport> airports = new ArrayList<>();
+    private final Map<Airport, Integer> ids = new HashMap<>();
+    //the routes from and to each airport, by id, and their numbers.
+    private int[][] routesFrom = new int[0][];
+    private int[][] routesTo = new int[0][];
+    private int[] routesFromCount = new int[0];
+    private int[] routesToCount = new int[0];
+
+    //the component of each airport.
+    private int[] components = new int[0];
+    //the airports of each component, and their number.
+    private int[][] members = new int[0][];
+    private int[] memberCount = new int[0];
+    //the number of routes leaving each component.
+    private int[] leavingCount = new int[0];
+    //the component ids not in use. There is one id more than there is room for airports, as a
+    //component that is split keeps its id until each of its parts has got one.
+    private int[] freeComponents = new int[0];
+    private int freeCount = 0;
+    //the number of components no route leaves, and their ids combined by xor, which is the
+    //id of the only one if there is only one.
+    private int sinkCount = 0;
+    private int sinkXor = 0;
+
+    //the place of each component in a topological order, in which every route between two
+    //components leads from the lower place to the higher. The places are the slots of a
+    //linked list, whose labels grow along the list so that places compare in O(1).
+    private int[] slotOf = new int[0];
+    private long[] labels = new long[0];
+    private int[] nextSlots = new int[0];
+    private int[] previousSlots = new int[0];
+    private int firstSlot = -1;
+    //the slots not in use.
+    private int[] freeSlots = new int[0];
+    private int freeSlotCount = 0;
+
+    //the epoch the airports were last marked in by each of the two searches within a
+    //component, the epoch the components were last found in by the search of the order and
+    //found to be on a cycle through a new route, and the current epoch.
+    private int[] forwardMarks = new int[0];
+    private int[] backwardMarks = new int[0];
+    private int[] componentMarks = new int[0];
+    private int[] cycleMarks = new int[0];
+    private int epoch = 0;
+    //the queue of the searches within a component.
+    private int[] queue = new int[0];
+    //the queue of the search of the order. decompose lists the components it creates in
+    //there as well.
+    private int[] componentQueue = new int[0];
+    //the components the search of the order found and their labels, by label.
+    private int[] rankedComponents = new int[0];
+    private long[] rankedLabels = new long[0];
+    //the discovery order, lowest reachable discovery, path and next route of Tarjan's
+    //algorithm.
+    private int[] discovered = new int[0];
+    private int[] lowest = new int[0];
+    private int[] path = new int[0];
+    private int[] nextRoute = new int[0];
+    private int[] stack = new int[0];
+
+    /**
+     * Starts tracking the given airports and their routes.
+     *
+     * @param airports the airports to track.
+     * @throws IllegalArgumentException if {@code airports} is {@code null}, or if an airport
+     * has a destination that is not among them.
+     */
+    public ReachabilityTracker(Set<Airport> airports) {
+        if (airports == null) {
+            throw new IllegalArgumentException("airports must not be null.");
+        }
+
+        for (Airport airport : airports) {
+            addNode(airport);
+        }
+        for (int id = 0; id < this.airports.size(); id++) {
+            for (Airport destination : this.airports.get(id).getDestinations()) {
+                Integer target = ids.get(destination);
+                if (target == null) {
+                    throw new IllegalArgumentException(destination + " is a destination of "
+                            + this.airports.get(id) + ", but not tracked.");
+                }
+                link(id, target);
+            }
+        }
+
+        //split the network into its components.
+        int[] all = new int[this.airports.size()];
+        for (int id = 0; id < all.length; id++) {
+            all[id] = id;
+            components[id] = -1;
+        }
+        insertSlots(-1, componentQueue, 0, decompose(all, all.length, -1));
+    }
+
+    /**
+     * Starts tracking a new airport and its routes, whose destinations must be tracked already
+     * (or be the airport itself).
+     *
+     * @param airport the airport to track.
+     * @return whether the airport was not tracked before.
+     * @throws IllegalArgumentException if the airport has destinations that are not tracked.
+     */
+    public boolean addAirport(Airport airport) {
+        if (ids.containsKey(airport)) {
+            return false;
+        }
+
+        for (Airport destination : airport.getDestinations()) {
+            if (!destination.equals(airport) && !ids.containsKey(destination)) {
+                throw new IllegalArgumentException(destination + " is a destination of "
+                        + airport + ", but not tracked.");
+            }
+        }
+
+        //the airport is a component of its own, which its routes may then merge. It comes
+        //first in the order, where the routes it has lead forward.
+        int id = addNode(airport);
+        components[id] = allocateComponent();
+        addMember(components[id], id);
+        setLeavingCount(components[id], 0);
+        componentQueue[0] = components[id];
+        insertSlots(-1, componentQueue, 0, 1);
+
+        List<Airport> destinations = new ArrayList<>(airport.getDestinations());
+        airport.getDestinations().clear();
+        for (Airport destination : destinations) {
+            addRoute(airport, destination);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a route between two tracked airports.
+     *
+     * @param from the airport the route leaves from.
+     * @param to   the destination of the route.
+     * @return whether the route did not exist before.
+     * @throws IllegalArgumentException if any of the airports is not tracked.
+     */
+    public boolean addRoute(Airport from, Airport to) {
+        int source = idOf(from);
+        int target = idOf(to);
+        if (!from.getDestinations().add(to)) {
+            return false;
+        }
+        link(source, target);
+
+        int sourceComponent = components[source];
+        int targetComponent = components[target];
+        if (sourceComponent == targetComponent) {
+            return true;
+        }
+
+        //a route that leads forward in the order keeps it topological.
+        long sourceLabel = labelOf(sourceComponent);
+        long targetLabel = labelOf(targetComponent);
+        if (sourceLabel < targetLabel) {
+            setLeavingCount(sourceComponent, leavingCount[sourceComponent] + 1);
+            return true;
+        }
+
+        //otherwise, only the components from the target to the source in the order can be on
+        //a cycle through the route or need to move. Search them from the smaller of the two
+        //components: forward from the target, or backward from the source.
+        boolean forward = memberCount[targetComponent] <= memberCount[sourceComponent];
+        int end = forward ? sourceComponent : targetComponent;
+        nextEpoch();
+        int count = forward
+                ? searchComponents(targetComponent, end, routesFrom, routesFromCount,
+                        targetLabel, sourceLabel)
+                : searchComponents(sourceComponent, end, routesTo, routesToCount,
+                        targetLabel, sourceLabel);
+        rank(count);
+        if (componentMarks[end] != epoch) {
+            //the route just connects two components. Those found move right after the
+            //source, or right before the target, so that it leads forward.
+            moveSlots(slotOf[end], forward, count);
+            setLeavingCount(sourceComponent, leavingCount[sourceComponent] + 1);
+            return true;
+        }
+
+        //otherwise, those found that reach the source, or that the target reaches, are on
+        //cycles through the route now, so they become one. The largest of them keeps its id
+        //and the others move into it, so that an airport only moves into a component at least
+        //twice the size of its old one.
+        markCycles(count, forward, end);
+        int merged = sourceComponent;
+        for (int i = 0; i < count; i++) {
+            int component = rankedComponents[i];
+            if (isOnCycle(component) && memberCount[component] > memberCount[merged]) {
+                merged = component;
+            }
+        }
+        //the routes between them no longer leave a component. Each is a route of an airport
+        //that moves, from it or from the merged component to it. The new route was not
+        //counted yet, but is among them.
+        int leaving = 1;
+        for (int i = 0; i < count; i++) {
+            int component = rankedComponents[i];
+            if (isOnCycle(component)) {
+                leaving += leavingCount[component];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int component = rankedComponents[i];
+            if (component != merged && isOnCycle(component)) {
+                leaving -= countInnerRoutes(component, merged);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int component = rankedComponents[i];
+            if (component != merged && isOnCycle(component)) {
+                for (int m = 0; m < memberCount[component]; m++) {
+                    addMember(merged, members[component][m]);
+                    components[members[component][m]] = merged;
+                }
+                memberCount[component] = 0;
+                setLeavingCount(component, 1);
+                freeComponent(component);
+            }
+        }
+        setLeavingCount(merged, leaving);
+
+        //the merged component takes the slot of the one the search ended at, and the others
+        //found move as above.
+        int endSlot = slotOf[end];
+        int moved = 0;
+        for (int i = 0; i < count; i++) {
+            int component = rankedComponents[i];
+            if (!isOnCycle(component)) {
+                rankedComponents[moved++] = component;
+            } else if (component != end) {
+                removeSlot(slotOf[component]);
+            }
+        }
+        slotOf[merged] = endSlot;
+        moveSlots(endSlot, forward, moved);
+        return true;
+    }
+
+    /**
+     * Removes a route between two tracked airports.
+     *
+     * @param from the airport the route leaves from.
+     * @param to   the destination of the route.
+     * @return whether the route existed.
+     * @throws IllegalArgumentException if any of the airports is not tracked.
+     */
+    public boolean removeRoute(Airport from, Airport to) {
+        int source = idOf(from);
+        int target = idOf(to);
+        if (!from.getDestinations().remove(to)) {
+            return false;
+        }
+        unlink(source, target);
+
+        int component = components[source];
+        if (component != components[target]) {
+            setLeavingCount(component, leavingCount[component] - 1);
+            return true;
+        }
+
+        //the component stays as it is if the source still reaches all of its airports and
+        //they all still reach the source.
+        nextEpoch();
+        int size = memberCount[component];
+        if (searchWithin(source, forwardMarks, routesFrom, routesFromCount) == size
+                && searchWithin(source, backwardMarks, routesTo, routesToCount) == size) {
+            return true;
+        }
+
+        //otherwise, split it up into the components it now consists of, which take its place
+        //in the order.
+        int[] split = Arrays.copyOf(members[component], size);
+        memberCount[component] = 0;
+        setLeavingCount(component, 1);
+        int partCount = decompose(split, size, component);
+        freeComponent(component);
+        slotOf[componentQueue[0]] = slotOf[component];
+        insertSlots(slotOf[component], componentQueue, 1, partCount);
+        return true;
+    }
+
+    /**
+     * Checks whether the given airport is reachable from all tracked airports.
+     *
+     * @throws IllegalArgumentException if the airport is not tracked.
+     */
+    public boolean isAlwaysReachable(Airport airport) {
+        return sinkCount == 1 && components[idOf(airport)] == sinkXor;
+    }
+
+    /**
+     * Returns the number of airports reachable from all tracked airports.
+     */
+    public int getAlwaysReachableCount() {
+        return sinkCount == 1 ? memberCount[sinkXor] : 0;
+    }
+
+    /**
+     * Returns a new set of the airports reachable from all tracked airports, which is the same
+     * as that of {@link AirportReachabilityCalculator#findAlwaysReachableAirports(Set)} for the
+     * tracked airports.
+     */
+    public Set<Airport> getAlwaysReachableAirports() {
+        Set<Airport> result = new HashSet<>();
+        if (sinkCount == 1) {
+            for (int m = 0; m < memberCount[sinkXor]; m++) {
+                result.add(airports.get(members[sinkXor][m]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of tracked airports.
+     */
+    public int size() {
+        return airports.size();
+    }
+
+    /**
+     * Returns the number of strongly connected components of the tracked network.
+     */
+    public int getComponentCount() {
+        return members.length - freeCount;
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Components
+
+    /**
+     * Splits the given airports, which are all in the given component (or in none, if it is
+     * {@code -1}), into strongly connected components with Tarjan's algorithm, and counts the
+     * routes leaving each of these. The new components are put into the component queue in
+     * topological order.
+     *
+     * @return the number of new components.
+     */
+    private int decompose(int[] airports, int count, int component) {
+        for (int i = 0; i < count; i++) {
+            discovered[airports[i]] = 0;
+        }
+
+        int discoveries = 0;
+        int stackSize = 0;
+        int createdCount = 0;
+        for (int i = 0; i < count; i++) {
+            int root = airports[i];
+            if (discovered[root] != 0) {
+                continue;
+            }
+
+            int pathLength = 0;
+            path[pathLength++] = root;
+            discovered[root] = lowest[root] = ++discoveries;
+            nextRoute[root] = 0;
+            stack[stackSize++] = root;
+
+            while (pathLength > 0) {
+                int current = path[pathLength - 1];
+
+                if (nextRoute[current] < routesFromCount[current]) {
+                    //follow the next route within the airports, unless it leads to a component
+                    //that is already finished.
+                    int target = routesFrom[current][nextRoute[current]++];
+                    if (components[target] != component) {
+                        continue;
+                    }
+                    if (discovered[target] == 0) {
+                        path[pathLength++] = target;
+                        discovered[target] = lowest[target] = ++discoveries;
+                        nextRoute[target] = 0;
+                        stack[stackSize++] = target;
+                    } else {
+                        lowest[current] = Math.min(lowest[current], discovered[target]);
+                    }
+                    continue;
+                }
+
+                //all routes are followed, so go back.
+                pathLength -= 1;
+                if (pathLength > 0) {
+                    int parent = path[pathLength - 1];
+                    lowest[parent] = Math.min(lowest[parent], lowest[current]);
+                }
+
+                if (lowest[current] == discovered[current]) {
+                    //the airports above it on the stack form a new component.
+                    int created = allocateComponent();
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        components[member] = created;
+                        addMember(created, member);
+                    } while (member != current);
+                    setLeavingCount(created, countLeaving(created));
+                    componentQueue[createdCount++] = created;
+                }
+            }
+        }
+
+        //the components are found in reverse topological order.
+        for (int i = 0, j = createdCount - 1; i < j; i++, j--) {
+            int temp = componentQueue[i];
+            componentQueue[i] = componentQueue[j];
+            componentQueue[j] = temp;
+        }
+        return createdCount;
+    }
+
+    /**
+     * Counts the routes leaving the given component.
+     */
+    private int countLeaving(int component) {
+        int leaving = 0;
+        for (int m = 0; m < memberCount[component]; m++) {
+            int airport = members[component][m];
+            for (int r = 0; r < routesFromCount[airport]; r++) {
+                if (components[routesFrom[airport][r]] != component) {
+                    leaving += 1;
+                }
+            }
+        }
+        return leaving;
+    }
+
+    /**
+     * Marks the components the search of {@link #addRoute(Airport, Airport)} found that are on
+     * cycles through the new route: those that reach the source, after a forward search, or
+     * that the target reaches, after a backward search. Going through them from the end of
+     * the search on, each routes to or from one that is already known to be on a cycle.
+     */
+    private void markCycles(int count, boolean forward, int end) {
+        int[][] routes = forward ? routesFrom : routesTo;
+        int[] routeCounts = forward ? routesFromCount : routesToCount;
+        cycleMarks[end] = epoch;
+
+        for (int k = 0; k < count; k++) {
+            int component = rankedComponents[forward ? count - 1 - k : k];
+            for (int m = 0; m < memberCount[component] && cycleMarks[component] != epoch; m++) {
+                int airport = members[component][m];
+                for (int r = 0; r < routeCounts[airport]; r++) {
+                    if (cycleMarks[components[routes[airport][r]]] == epoch) {
+                        cycleMarks[component] = epoch;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the routes between an airport of the given component and an airport of another
+     * component on the cycles of {@link #addRoute(Airport, Airport)}, except those from the
+     * other component if that is not the merged one. Counting these for each component on
+     * the cycles but the merged one counts each route between them once.
+     */
+    private int countInnerRoutes(int component, int merged) {
+        int inner = 0;
+        for (int m = 0; m < memberCount[component]; m++) {
+            int airport = members[component][m];
+            for (int r = 0; r < routesFromCount[airport]; r++) {
+                int next = components[routesFrom[airport][r]];
+                if (next != component && isOnCycle(next)) {
+                    inner += 1;
+                }
+            }
+            for (int r = 0; r < routesToCount[airport]; r++) {
+                if (components[routesTo[airport][r]] == merged) {
+                    inner += 1;
+                }
+            }
+        }
+        return inner;
+    }
+
+    /**
+     * Checks whether {@link #markCycles(int, boolean, int)} marked the given component.
+     */
+    private boolean isOnCycle(int component) {
+        return cycleMarks[component] == epoch;
+    }
+
+    /**
+     * Sets the number of routes leaving the given component, and keeps track of whether it is
+     * a sink.
+     */
+    private void setLeavingCount(int component, int count) {
+        boolean wasSink = leavingCount[component] == 0;
+        boolean isSink = count == 0;
+        leavingCount[component] = count;
+
+        if (wasSink != isSink) {
+            sinkCount += isSink ? 1 : -1;
+            sinkXor ^= component;
+        }
+    }
+
+    /**
+     * Returns an unused component id, which is not a sink.
+     */
+    private int allocateComponent() {
+        int component = freeComponents[--freeCount];
+        memberCount[component] = 0;
+        return component;
+    }
+
+    /**
+     * Makes the given component id, which must not be a sink, available again.
+     */
+    private void freeComponent(int component) {
+        freeComponents[freeCount++] = component;
+    }
+
+    /**
+     * Adds an airport to the given component.
+     */
+    private void addMember(int component, int airport) {
+        if (memberCount[component] == members[component].length) {
+            members[component] = Arrays.copyOf(members[component],
+                    Math.max(4, 2 * memberCount[component]));
+        }
+        members[component][memberCount[component]++] = airport;
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Order
+
+    /**
+     * Returns the label of the slot of the given component.
+     */
+    private long labelOf(int component) {
+        return labels[slotOf[component]];
+    }
+
+    /**
+     * Puts the components the search of the order found into the ranked arrays, by label.
+     */
+    private void rank(int count) {
+        for (int i = 0; i < count; i++) {
+            rankedLabels[i] = labelOf(componentQueue[i]);
+        }
+        Arrays.sort(rankedLabels, 0, count);
+        for (int i = 0; i < count; i++) {
+            int component = componentQueue[i];
+            rankedComponents[Arrays.binarySearch(rankedLabels, 0, count, labelOf(component))] =
+                    component;
+        }
+    }
+
+    /**
+     * Moves the first {@code count} ranked components right after the given slot, or right
+     * before it, keeping their order.
+     */
+    private void moveSlots(int slot, boolean after, int count) {
+        for (int i = 0; i < count; i++) {
+            removeSlot(slotOf[rankedComponents[i]]);
+        }
+        insertSlots(after ? slot : previousSlots[slot], rankedComponents, 0, count);
+    }
+
+    /**
+     * Gives the given components new slots right after the given one (or first, if it is
+     * {@code -1}), in this order.
+     */
+    private void insertSlots(int previous, int[] placed, int from, int to) {
+        int count = to - from;
+        if (spaceAfter(previous) <= count) {
+            relabel(previous, count + 1);
+        }
+
+        //spread the labels up to the next slot, but not further apart than after relabelling.
+        int next = previous == -1 ? firstSlot : nextSlots[previous];
+        long spacing = Math.min(LABEL_GAP, spaceAfter(previous) / (count + 1));
+        long label = previous != -1 ? labels[previous] + spacing
+                : next != -1 ? labels[next] - count * spacing : 0;
+        for (int i = from; i < to; i++) {
+            previous = insertSlot(previous, label);
+            slotOf[placed[i]] = previous;
+            label += spacing;
+        }
+    }
+
+    /**
+     * Returns the distance between the labels of the given slot (or the front of the list, if
+     * it is {@code -1}) and the next one (or the end of the list).
+     */
+    private long spaceAfter(int slot) {
+        int next = slot == -1 ? firstSlot : nextSlots[slot];
+        return (next == -1 ? MAX_LABEL : labels[next]) - (slot == -1 ? MIN_LABEL : labels[slot]);
+    }
+
+    /**
+     * Puts a new slot with the given label into the list after the given slot (or first, if
+     * it is {@code -1}). The label must lie between those of its neighbours.
+     *
+     * @return the new slot.
+     */
+    private int insertSlot(int previous, long label) {
+        int slot = freeSlots[--freeSlotCount];
+        int next = previous == -1 ? firstSlot : nextSlots[previous];
+        labels[slot] = label;
+        previousSlots[slot] = previous;
+        nextSlots[slot] = next;
+
+        if (previous == -1) {
+            firstSlot = slot;
+        } else {
+            nextSlots[previous] = slot;
+        }
+        if (next != -1) {
+            previousSlots[next] = slot;
+        }
+        return slot;
+    }
+
+    /**
+     * Takes the given slot out of the list and makes it available again.
+     */
+    private void removeSlot(int slot) {
+        int previous = previousSlots[slot];
+        int next = nextSlots[slot];
+        if (previous == -1) {
+            firstSlot = next;
+        } else {
+            nextSlots[previous] = next;
+        }
+        if (next != -1) {
+            previousSlots[next] = previous;
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    /**
+     * Labels the slots anew along the list, from {@code 0} in steps of {@link #LABEL_GAP}, and
+     * leaves the given distance more after the given slot.
+     */
+    private void relabel(int roomAfter, int room) {
+        long label = 0;
+        for (int slot = firstSlot; slot != -1; slot = nextSlots[slot]) {
+            labels[slot] = label;
+            label += slot == roomAfter ? LABEL_GAP + room : LABEL_GAP;
+        }
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Searches
+
+    /**
+     * Visits all components reachable from the start component along the given routes whose
+     * labels lie between the given ones (incl), marking them with the current epoch, and puts
+     * them into the component queue. The routes of the given end component are not followed.
+     *
+     * @return the number of visited components.
+     */
+    private int searchComponents(int start, int end, int[][] routes, int[] routeCounts,
+            long lowLabel, long highLabel) {
+        int tail = 0;
+        componentMarks[start] = epoch;
+        componentQueue[tail++] = start;
+
+        for (int i = 0; i < tail; i++) {
+            int component = componentQueue[i];
+            if (component == end) {
+                continue;
+            }
+            for (int m = 0; m < memberCount[component]; m++) {
+                int airport = members[component][m];
+                for (int r = 0; r < routeCounts[airport]; r++) {
+                    int next = components[routes[airport][r]];
+                    if (componentMarks[next] != epoch && labelOf(next) >= lowLabel
+                            && labelOf(next) <= highLabel) {
+                        componentMarks[next] = epoch;
+                        componentQueue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Visits all airports reachable from the start along the given routes within its
+     * component, marking them with the current epoch, and returns their number.
+     */
+    private int searchWithin(int start, int[] marks, int[][] routes, int[] routeCounts) {
+        int component = components[start];
+        int tail = 0;
+        marks[start] = epoch;
+        queue[tail++] = start;
+
+        for (int i = 0; i < tail; i++) {
+            int current = queue[i];
+            for (int r = 0; r < routeCounts[current]; r++) {
+                int next = routes[current][r];
+                if (marks[next] != epoch && components[next] == component) {
+                    marks[next] = epoch;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Starts a new epoch, in which no airport is marked by the searches yet.
+     */
+    private void nextEpoch() {
+        if (epoch == Integer.MAX_VALUE) {
+            //the marks would repeat, so clear them for once.
+            Arrays.fill(forwardMarks, 0);
+            Arrays.fill(backwardMarks, 0);
+            Arrays.fill(componentMarks, 0);
+            Arrays.fill(cycleMarks, 0);
+            epoch = 0;
+        }
+        epoch += 1;
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Airports and routes
+
+    /**
+     * Returns the id of the given tracked airport.
+     */
+    private int idOf(Airport airport) {
+        Integer id = airport == null ? null : ids.get(airport);
+        if (id == null) {
+            throw new IllegalArgumentException(airport + " is not tracked.");
+        }
+        return id;
+    }
+
+    /**
+     * Gives the airport the next id, and makes room for it in all arrays.
+     */
+    private int addNode(Airport airport) {
+        int id = airports.size();
+        if (id == components.length) {
+            grow(Math.max(16, 2 * id));
+        }
+
+        airports.add(airport);
+        ids.put(airport, id);
+        routesFrom[id] = new int[2];
+        routesTo[id] = new int[2];
+        return id;
+    }
+
+    /**
+     * Grows all arrays to the given capacity of airports, and those of the components and
+     * slots to one more. Each new component id and slot becomes free.
+     */
+    private void grow(int capacity) {
+        int oldComponentCapacity = members.length;
+        int componentCapacity = capacity + 1;
+        routesFrom = Arrays.copyOf(routesFrom, capacity);
+        routesTo = Arrays.copyOf(routesTo, capacity);
+        routesFromCount = Arrays.copyOf(routesFromCount, capacity);
+        routesToCount = Arrays.copyOf(routesToCount, capacity);
+        components = Arrays.copyOf(components, capacity);
+        members = Arrays.copyOf(members, componentCapacity);
+        memberCount = Arrays.copyOf(memberCount, componentCapacity);
+        leavingCount = Arrays.copyOf(leavingCount, componentCapacity);
+        freeComponents = Arrays.copyOf(freeComponents, componentCapacity);
+        slotOf = Arrays.copyOf(slotOf, componentCapacity);
+        labels = Arrays.copyOf(labels, componentCapacity);
+        nextSlots = Arrays.copyOf(nextSlots, componentCapacity);
+        previousSlots = Arrays.copyOf(previousSlots, componentCapacity);
+        freeSlots = Arrays.copyOf(freeSlots, componentCapacity);
+        forwardMarks = Arrays.copyOf(forwardMarks, capacity);
+        backwardMarks = Arrays.copyOf(backwardMarks, capacity);
+        componentMarks = Arrays.copyOf(componentMarks, componentCapacity);
+        cycleMarks = Arrays.copyOf(cycleMarks, componentCapacity);
+        queue = Arrays.copyOf(queue, capacity);
+        componentQueue = Arrays.copyOf(componentQueue, componentCapacity);
+        rankedComponents = Arrays.copyOf(rankedComponents, componentCapacity);
+        rankedLabels = Arrays.copyOf(rankedLabels, componentCapacity);
+        discovered = Arrays.copyOf(discovered, capacity);
+        lowest = Arrays.copyOf(lowest, capacity);
+        path = Arrays.copyOf(path, capacity);
+        nextRoute = Arrays.copyOf(nextRoute, capacity);
+        stack = Arrays.copyOf(stack, capacity);
+
+        //the new ids and slots are free, in descending order so that low ones are used first.
+        //Unused components count as having leaving routes, so that they are no sinks.
+        for (int component = componentCapacity - 1; component >= oldComponentCapacity;
+                component--) {
+            members[component] = new int[0];
+            leavingCount[component] = 1;
+            freeComponents[freeCount++] = component;
+            freeSlots[freeSlotCount++] = component;
+        }
+    }
+
+    /**
+     * Records a route in the arrays of both of its airports.
+     */
+    private void link(int source, int target) {
+        if (routesFromCount[source] == routesFrom[source].length) {
+            routesFrom[source] = Arrays.copyOf(routesFrom[source], 2 * routesFromCount[source]);
+        }
+        routesFrom[source][routesFromCount[source]++] = target;
+
+        if (routesToCount[target] == routesTo[target].length) {
+            routesTo[target] = Arrays.copyOf(routesTo[target], 2 * routesToCount[target]);
+        }
+        routesTo[target][routesToCount[target]++] = source;
+    }
+
+    /**
+     * Removes a route from the arrays of both of its airports.
+     */
+    private void unlink(int source, int target) {
+        remove(routesFrom[source], routesFromCount[source]--, target);
+        remove(routesTo[target], routesToCount[target]--, source);
+    }
+
+    /**
+     * Removes a value from the first {@code count} elements of the array by moving the last
+     * one into its place.
+     */
+    private static void remove(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                values[i] = values[count - 1];
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class ReachabilityTrackerTest {
+
+	@Test
+	public void testExample() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		Airport ikt = new Airport("IKT");
+		ReachabilityTracker tracker = new ReachabilityTracker(
+				new HashSet<>(Arrays.asList(jav, las, fnj, ikt)));
+
+		// Four unconnected airports are four sinks
+		assertEquals(4, tracker.getComponentCount());
+		assertEquals(0, tracker.getAlwaysReachableCount());
+
+		// Closing the cycle JAV -> FNJ -> IKT -> LAS -> JAV merges all of them
+		tracker.addRoute(jav, fnj);
+		tracker.addRoute(fnj, ikt);
+		tracker.addRoute(ikt, las);
+		assertEquals(Collections.singleton(las), tracker.getAlwaysReachableAirports());
+		assertTrue(tracker.addRoute(las, jav));
+		assertFalse(tracker.addRoute(las, jav));
+		assertEquals(1, tracker.getComponentCount());
+		assertEquals(4, tracker.getAlwaysReachableCount());
+		assertTrue(las.getDestinations().contains(jav));
+
+		// Opening it again splits it up
+		assertTrue(tracker.removeRoute(fnj, ikt));
+		assertFalse(tracker.removeRoute(fnj, ikt));
+		assertEquals(4, tracker.getComponentCount());
+		assertTrue(tracker.isAlwaysReachable(fnj));
+		assertFalse(tracker.isAlwaysReachable(jav));
+
+		// A new airport without routes is another sink
+		Airport txl = new Airport("TXL");
+		assertTrue(tracker.addAirport(txl));
+		assertEquals(0, tracker.getAlwaysReachableCount());
+		assertThrows(IllegalArgumentException.class,
+				() -> tracker.addRoute(txl, new Airport("BER")));
+	}
+
+	@Test
+	public void testOpenNetwork() {
+		Airport jav = new Airport("JAV");
+		jav.getDestinations().add(new Airport("LAS"));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new ReachabilityTracker(Collections.singleton(jav)));
+	}
+
+	@Test
+	public void testRandomChanges() {
+		Random random = new Random(42);
+
+		for (int round = 0; round < 100; round++) {
+			// Up to 40 airports, so that the tracker grows on the way
+			List<Airport> airports = createAirports(1 + random.nextInt(40));
+			for (int i = random.nextInt(2 * airports.size()); i > 0; i--) {
+				airports.get(random.nextInt(airports.size())).getDestinations()
+						.add(airports.get(random.nextInt(airports.size())));
+			}
+			ReachabilityTracker tracker = new ReachabilityTracker(new HashSet<>(airports));
+
+			for (int change = 0; change < 50; change++) {
+				Airport from = airports.get(random.nextInt(airports.size()));
+				Airport to = airports.get(random.nextInt(airports.size()));
+				if (random.nextBoolean()) {
+					tracker.addRoute(from, to);
+				} else {
+					tracker.removeRoute(from, to);
+				}
+
+				Set<Airport> expected = AirportReachabilityCalculator.findAlwaysReachableAirports(
+						new HashSet<>(airports));
+				assertEquals(expected, tracker.getAlwaysReachableAirports());
+				assertEquals(expected.size(), tracker.getAlwaysReachableCount());
+				for (Airport airport : airports) {
+					assertEquals(expected.contains(airport), tracker.isAlwaysReachable(airport));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testChainInRandomOrder() {
+		List<Airport> airports = createAirports(50);
+		ReachabilityTracker tracker = new ReachabilityTracker(new HashSet<>(airports));
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i + 1 < airports.size(); i++) {
+			order.add(i);
+		}
+		Collections.shuffle(order, new Random(7));
+
+		// Many of the routes lead backwards in the order of the components, which moves them
+		for (int i : order) {
+			tracker.addRoute(airports.get(i), airports.get(i + 1));
+		}
+		assertEquals(50, tracker.getComponentCount());
+		assertEquals(Collections.singleton(airports.get(49)), tracker.getAlwaysReachableAirports());
+
+		// Closing the chain merges all of it, and opening it anywhere splits it again
+		tracker.addRoute(airports.get(49), airports.get(0));
+		assertEquals(1, tracker.getComponentCount());
+		assertEquals(50, tracker.getAlwaysReachableCount());
+		tracker.removeRoute(airports.get(20), airports.get(21));
+		assertEquals(50, tracker.getComponentCount());
+		assertEquals(Collections.singleton(airports.get(20)), tracker.getAlwaysReachableAirports());
+	}
+
+	@Test
+	public void testSplitWithAllComponentsInUse() {
+		// 16 and 32 airports fill the arrays of the tracker exactly
+		for (int airportCount : new int[] {16, 32}) {
+			List<Airport> airports = createAirports(airportCount);
+			Airport first = airports.get(0);
+			Airport second = airports.get(1);
+			first.getDestinations().add(second);
+			second.getDestinations().add(first);
+			ReachabilityTracker tracker = new ReachabilityTracker(new HashSet<>(airports));
+			assertEquals(airportCount - 1, tracker.getComponentCount());
+
+			// Splitting the only cycle needs two new components while it still has its own
+			assertTrue(tracker.removeRoute(first, second));
+			assertEquals(airportCount, tracker.getComponentCount());
+			assertTrue(tracker.addRoute(second, airports.get(2)));
+			assertTrue(tracker.addRoute(airports.get(2), second));
+			assertEquals(airportCount - 1, tracker.getComponentCount());
+			assertEquals(0, tracker.getAlwaysReachableCount());
+		}
+	}
+
+	/**
+	 * Creates the given number of airports without routes.
+	 */
+	private static List<Airport> createAirports(int count) {
+		List<Airport> airports = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			airports.add(new Airport("A" + (char) ('A' + i / 26) + (char) ('A' + i % 26)));
+		}
+		return airports;
+	}
+
+}
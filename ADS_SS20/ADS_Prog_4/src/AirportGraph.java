@@ -0,0 +1,323 @@
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A network of connections compiled into arrays, so that algorithms can run over it without
+ * hashing airports or allocating objects. Airports are numbered from {@code 0} to
+ * {@link #size()} (excl), and the connections are stored in compressed sparse rows: the
+ * neighbours of airport {@code id} are the targets of the routes
+ * {@link #getRouteStart(int) getRouteStart(id)} to {@link #getRouteEnd(int) getRouteEnd(id)}
+ * (excl). Each connection is stored as one route in either direction, and a route takes eight
+ * bytes: its target and its cost.
+ *
+ * <p>Ids are looked up by IATA code in a small open-addressing table, keyed by a number that is
+ * computed from the code's three letters instead of by the string's hash.</p>
+ *
+ * <p>The graph is a snapshot: changes to the airports' connections after compilation are not
+ * reflected.</p>
+ */
+public final class AirportGraph {
+
+    //number of letters an IATA code may consist of (a-z and A-Z).
+    private static final int LETTERS = 52;
+
+    //the airports by id.
+    private final Airport[] airports;
+    //number of airports that were given to compile, which have the lowest ids.
+    private final int givenCount;
+    //the id of each airport, by the index of its IATA code.
+    private final CodeTable ids;
+    //the first route of each airport, followed by the number of routes.
+    private final int[] offsets;
+    //the other airport and the cost of each route.
+    private final int[] targets;
+    private final int[] costs;
+
+    private AirportGraph(Airport[] airports, int givenCount, CodeTable ids, int[] offsets,
+            int[] targets, int[] costs) {
+        this.airports = airports;
+        this.givenCount = givenCount;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+    }
+
+    /**
+     * Compiles the network of connections of the given airports. The airports get the ids
+     * from {@code 0} to {@code airports.size()} (excl) in the order of iteration. Connected
+     * airports that are not among them are compiled as well, with the ids after those.
+     *
+     * @param airports the airports to compile.
+     * @return the compiled network.
+     * @throws IllegalArgumentException if {@code airports} is {@code null}.
+     */
+    public static AirportGraph compile(Collection<Airport> airports) {
+        if (airports == null) {
+            throw new IllegalArgumentException("airports must not be null.");
+        }
+
+        CodeTable ids = new CodeTable(airports.size());
+        Airport[] airportsById = new Airport[Math.max(16, airports.size())];
+        int count = 0;
+
+        //number the given airports first; equal airports get the same id.
+        for (Airport airport : airports) {
+            int code = codeIndex(airport.getIataDesignation());
+            if (ids.get(code) == -1) {
+                ids.put(code, count);
+                airportsById[count++] = airport;
+            }
+        }
+        int givenCount = count;
+
+        //collect the routes. The airports grow while we go through them, whenever a
+        //neighbour is new.
+        int[] offsets = new int[airportsById.length + 1];
+        int[] targets = new int[16];
+        int[] costs = new int[16];
+        int routeCount = 0;
+        for (int id = 0; id < count; id++) {
+            Airport airport = airportsById[id];
+            for (Connection connection : airport.getConnections()) {
+                Airport neighbour = otherAirport(connection, airport);
+                int code = codeIndex(neighbour.getIataDesignation());
+                int target = ids.get(code);
+                if (target == -1) {
+                    if (count == airportsById.length) {
+                        airportsById = Arrays.copyOf(airportsById, 2 * count);
+                        offsets = Arrays.copyOf(offsets, 2 * count + 1);
+                    }
+                    target = count;
+                    ids.put(code, target);
+                    airportsById[count++] = neighbour;
+                }
+
+                if (routeCount == targets.length) {
+                    targets = Arrays.copyOf(targets, 2 * routeCount);
+                    costs = Arrays.copyOf(costs, 2 * routeCount);
+                }
+                targets[routeCount] = target;
+                costs[routeCount] = connection.getCost();
+                routeCount += 1;
+            }
+            offsets[id + 1] = routeCount;
+        }
+
+        return new AirportGraph(Arrays.copyOf(airportsById, count), givenCount, ids,
+                Arrays.copyOf(offsets, count + 1), Arrays.copyOf(targets, routeCount),
+                Arrays.copyOf(costs, routeCount));
+    }
+
+    /**
+     * Returns the number of airports in the graph.
+     */
+    public int size() {
+        return airports.length;
+    }
+
+    /**
+     * Returns the number of airports that were given to {@link #compile(Collection)}. These
+     * have the ids from {@code 0} to this number (excl).
+     */
+    public int getGivenCount() {
+        return givenCount;
+    }
+
+    /**
+     * Returns the number of routes in the graph, which is twice the number of connections.
+     */
+    public int getRouteCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the airport with the given id.
+     */
+    public Airport getAirport(int id) {
+        return airports[id];
+    }
+
+    /**
+     * Returns the id of the given airport, or {@code -1} if it is not in the graph.
+     */
+    public int getId(Airport airport) {
+        //airports only exist with valid codes.
+        return ids.get(codeIndex(airport.getIataDesignation()));
+    }
+
+    /**
+     * Returns the id of the airport with the given IATA code, or {@code -1} if it is not in the
+     * graph.
+     *
+     * @throws IllegalArgumentException if the code is invalid.
+     */
+    public int getId(String iataCode) {
+        if (iataCode == null || iataCode.length() != 3 || !isLetter(iataCode.charAt(0))
+                || !isLetter(iataCode.charAt(1)) || !isLetter(iataCode.charAt(2))) {
+            throw new IllegalArgumentException(iataCode + " is not a valid IATA code.");
+        }
+
+        return ids.get(codeIndex(iataCode));
+    }
+
+    /**
+     * Returns the first route of the airport with the given id.
+     */
+    public int getRouteStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Returns the route after the last one of the airport with the given id.
+     */
+    public int getRouteEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Returns the id of the other airport of the given route.
+     */
+    public int getTarget(int route) {
+        return targets[route];
+    }
+
+    /**
+     * Returns the cost of the given route.
+     */
+    public int getCost(int route) {
+        return costs[route];
+    }
+
+    /**
+     * Returns the connection the given route of the airport with the given id was compiled
+     * from. This looks through the airport's connections, so it takes time linear in their
+     * number.
+     *
+     * @throws IllegalArgumentException if the airport no longer has this connection.
+     */
+    public Connection getConnection(int id, int route) {
+        Airport airport = airports[id];
+        Airport target = airports[targets[route]];
+        for (Connection connection : airport.getConnections()) {
+            if (otherAirport(connection, airport).equals(target)) {
+                return connection;
+            }
+        }
+        throw new IllegalArgumentException(airport + " is no longer connected to " + target);
+    }
+
+    /**
+     * Returns the airport of the connection that is not the given one.
+     */
+    private static Airport otherAirport(Connection connection, Airport airport) {
+        return connection.getAirport1().equals(airport)
+                ? connection.getAirport2()
+                : connection.getAirport1();
+    }
+
+    /**
+     * Maps a valid IATA code to a number from {@code 0} to {@code 52^3} (excl).
+     */
+    private static int codeIndex(String iataCode) {
+        return (letterIndex(iataCode.charAt(0)) * LETTERS + letterIndex(iataCode.charAt(1)))
+                * LETTERS + letterIndex(iataCode.charAt(2));
+    }
+
+    /**
+     * Maps the letters a-z and A-Z to numbers from {@code 0} to {@link #LETTERS} (excl).
+     */
+    private static int letterIndex(char letter) {
+        return letter >= 'a' ? letter - 'a' + 26 : letter - 'A';
+    }
+
+    /**
+     * Checks whether the given character is one of the letters a-z and A-Z.
+     */
+    private static boolean isLetter(char character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+    }
+
+
+    ////////////////////////////////////////////////////////////////////////////////////////////
+    // Looking up codes
+
+    /**
+     * Maps code indices to ids in an open-addressing hash table with linear probing. The table
+     * has at least twice as many slots as entries, so that probes stay short, and its size is
+     * proportional to the number of airports rather than to the number of possible codes.
+     */
+    private static final class CodeTable {
+
+        //the code index in each slot, or -1 if the slot is empty, and the id stored with it.
+        private int[] codes;
+        private int[] ids;
+        //number of entries.
+        private int size;
+
+        private CodeTable(int expectedSize) {
+            int slots = Integer.highestOneBit(Math.max(16, 2 * expectedSize) - 1) << 1;
+            codes = new int[slots];
+            ids = new int[slots];
+            Arrays.fill(codes, -1);
+        }
+
+        /**
+         * Returns the id stored for the given code index, or {@code -1} if there is none.
+         */
+        private int get(int code) {
+            int mask = codes.length - 1;
+            for (int slot = hash(code) & mask; codes[slot] != -1; slot = (slot + 1) & mask) {
+                if (codes[slot] == code) {
+                    return ids[slot];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Stores the id for the given code index, which must not be in the table yet.
+         */
+        private void put(int code, int id) {
+            if (2 * (size + 1) > codes.length) {
+                grow();
+            }
+
+            int mask = codes.length - 1;
+            int slot = hash(code) & mask;
+            while (codes[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            codes[slot] = code;
+            ids[slot] = id;
+            size += 1;
+        }
+
+        /**
+         * Doubles the number of slots and puts all entries in their new ones.
+         */
+        private void grow() {
+            int[] oldCodes = codes;
+            int[] oldIds = ids;
+            codes = new int[2 * oldCodes.length];
+            ids = new int[2 * oldCodes.length];
+            Arrays.fill(codes, -1);
+            size = 0;
+
+            for (int slot = 0; slot < oldCodes.length; slot++) {
+                if (oldCodes[slot] != -1) {
+                    put(oldCodes[slot], oldIds[slot]);
+                }
+            }
+        }
+
+        /**
+         * Spreads the code indices, which are dense, over the bits used by the table.
+         */
+        private static int hash(int code) {
+            int hash = code * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+}
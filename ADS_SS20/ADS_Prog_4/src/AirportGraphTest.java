@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class AirportGraphTest {
+
+	@Test
+	public void testRoutesInBothDirections() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		Connection javLas = connect(jav, las, 3);
+		Connection lasFnj = connect(las, fnj, 5);
+
+		AirportGraph graph = AirportGraph.compile(Arrays.asList(jav, las, fnj));
+
+		assertEquals(3, graph.size());
+		assertEquals(4, graph.getRouteCount());
+		assertRoute(graph, jav, las, javLas);
+		assertRoute(graph, las, jav, javLas);
+		assertRoute(graph, las, fnj, lasFnj);
+		assertRoute(graph, fnj, las, lasFnj);
+	}
+
+	@Test
+	public void testNeighboursOutsideList() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		connect(jav, las, 1);
+
+		AirportGraph graph = AirportGraph.compile(Arrays.asList(jav));
+
+		assertEquals(2, graph.size());
+		assertEquals(1, graph.getGivenCount());
+		assertSame(las, graph.getAirport(1));
+		assertEquals(-1, graph.getId("FNJ"));
+	}
+
+	/**
+	 * Asserts that the given airport has a route to the other one with the cost of the given
+	 * connection, which the route maps back to.
+	 */
+	private static void assertRoute(AirportGraph graph, Airport from, Airport to,
+			Connection connection) {
+		int id = graph.getId(from);
+		for (int route = graph.getRouteStart(id); route < graph.getRouteEnd(id); route++) {
+			if (graph.getTarget(route) == graph.getId(to)) {
+				assertEquals(connection.getCost(), graph.getCost(route));
+				assertSame(connection, graph.getConnection(id, route));
+				return;
+			}
+		}
+		throw new AssertionError("No route from " + from + " to " + to);
+	}
+
+	/**
+	 * Connects the two airports with the given cost.
+	 */
+	private static Connection connect(Airport airport1, Airport airport2, int cost) {
+		Connection connection = new Connection(airport1, airport2, cost);
+		airport1.getConnections().add(connection);
+		airport2.getConnections().add(connection);
+		return connection;
+	}
+
+}
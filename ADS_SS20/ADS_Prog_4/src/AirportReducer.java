@@ -1,4 +1,4 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -9,75 +9,161 @@ public class AirportReducer {
      * given graph using the algorithm of Jarnik / Prim.
      *
      *
-     * I have used the naive implementation because there was no limitation what so ever.
+     * The airports are compiled into an {@link AirportGraph} first, and the airports not yet
+     * reached are kept in a binary heap by the cost of their cheapest connection to the reached
+     * ones (U). This takes {@code O(E log V)} and allocates no objects until the connections
+     * are collected.
      *
      *
      * @param airports a list of airports. Airports have incident connections, and it
      *                 is these connections that shall form the MST returned by this
-     *                 method. You can assume that there exists a direct or indirect
-     *                 connection between any pair of airports, and that the set
-     *                 contains at least one airport.
+     *                 method. Only the connections between airports of the list are
+     *                 used; airports outside of it are not part of the MST.
      * @return the connections that form a minimal spanning tree.
+     * @throws IllegalArgumentException if the list is empty, or if there is a pair of airports
+     * in it that are not connected by connections between airports of the list.
      */
     public static Set<Connection> minimalSpanningTree(final List<Airport> airports) {
-        //a List to save the already reached airports (U).
-        List<Airport> reached = new ArrayList<>();
-        //a Set to save all connections needed dor a MST (ET).
-        Set<Connection> connectionAll = new HashSet<>();
-        //a variable for the amount of airports.
-        int n = airports.size();
+        AirportGraph graph = AirportGraph.compile(airports);
+        //a variable for the amount of airports; the given ones have the ids before the others.
+        int n = graph.getGivenCount();
+        if (n == 0) {
+            throw new IllegalArgumentException("airports must contain at least one airport.");
+        }
 
-        //add the first airport to start the loop.
-        reached.add(airports.get(0));
+        //the cheapest known cost to connect each airport to U, and the airport and route of
+        //that connection (-1 while there is none). The costs are longs so that airports
+        //without a connection come after those with one of cost Integer.MAX_VALUE.
+        long[] bestCost = new long[n];
+        int[] bestFrom = new int[n];
+        int[] bestRoute = new int[n];
+        Arrays.fill(bestCost, Long.MAX_VALUE);
+        Arrays.fill(bestRoute, -1);
+        //the airports not in U, as a heap by their best cost, and the index of each airport in
+        //there (-1 once it is in U).
+        int[] heap = new int[n];
+        int[] heapIndex = new int[n];
+        for (int id = 0; id < n; id++) {
+            heap[id] = id;
+            heapIndex[id] = id;
+        }
+        int heapSize = n;
 
-        //too connect all airports you need a minimal of n edges .
-        for (int i = 1; i < n; i++) {
-            //the variable to save the best possible edge for the current reached airports (U).
-            Connection bestEdge = getBestEdge(reached);
-            //add the "bestEdge" to the neededEdges (ET).
-            connectionAll.add(bestEdge);
+        //add the first airport to start the loop; all others cost the same for now.
+        bestCost[0] = 0;
+        while (heapSize > 0) {
+            //take the airport with the cheapest connection into U.
+            int reached = heap[0];
+            heapSize -= 1;
+            heapIndex[reached] = -1;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapIndex[heap[0]] = 0;
+                siftDown(heap, heapIndex, bestCost, heapSize, 0);
+            }
 
-            //because the order of the order in the connection you have to check which Airport is the missing one in U.
-            if (!reached.contains(bestEdge.getAirport2())) {
-                reached.add(bestEdge.getAirport2());
-            } else {
-                reached.add(bestEdge.getAirport1());
+            //its connections may be cheaper ways into U for its neighbours.
+            for (int route = graph.getRouteStart(reached); route < graph.getRouteEnd(reached);
+                    route++) {
+                int neighbour = graph.getTarget(route);
+                //airports that were not given are left out.
+                if (neighbour < n && heapIndex[neighbour] != -1
+                        && graph.getCost(route) < bestCost[neighbour]) {
+                    bestCost[neighbour] = graph.getCost(route);
+                    bestFrom[neighbour] = reached;
+                    bestRoute[neighbour] = route;
+                    siftUp(heap, heapIndex, bestCost, heapIndex[neighbour]);
+                }
             }
         }
+
+        //a Set to save all connections needed for a MST (ET).
+        Set<Connection> connectionAll = new HashSet<>();
+        for (int id = 1; id < n; id++) {
+            //an airport that was never connected to U cannot be reached from the first one.
+            if (bestRoute[id] == -1) {
+                throw new IllegalArgumentException("the airports are not connected.");
+            }
+            connectionAll.add(graph.getConnection(bestFrom[id], bestRoute[id]));
+        }
         return connectionAll;
     }
 
     /**
      * The method "getBestEdge" gets the best possible edge for k of U and a not already reached airport.
+     * The reached airports are compiled into an {@link AirportGraph}, in which all other airports
+     * have the higher ids, so each route is checked with one comparison.
      *
      * @param reached are the already reached airports.
      * @return the best possible connection.
+     * @throws IllegalArgumentException if no connection leads from a reached airport to one that
+     * was not reached.
      */
     public static Connection getBestEdge(List<Airport> reached) {
-        //a List to save the best possible connections of the best connections of airports of the reached airports (U).
-        List<Connection> connectionsBest = new ArrayList<>();
-        //a List of all reachable airports from the k'th airport of U.
-        List<Connection> reachable = new ArrayList<>();
-
-        //go through all of the reached airports (U).
-        for (int k = 0; k < reached.size(); k++) {
-            //a Set of the all possible destinations.
-            Set<Connection> destinations = reached.get(k).getConnections();
+        AirportGraph graph = AirportGraph.compile(reached);
+        //the airport and route of the cheapest connection found so far (-1 while there is none).
+        int bestFrom = -1;
+        int bestRoute = -1;
 
-            for (Connection connection : destinations) {
-                //check if the one of the two airports was not already reached because the orders are random.
-                if (!reached.contains(connection.getAirport2()) || !reached.contains(connection.getAirport1())) {
-                    reachable.add(connection);
+        for (int id = 0; id < graph.getGivenCount(); id++) {
+            for (int route = graph.getRouteStart(id); route < graph.getRouteEnd(id); route++) {
+                //only connections to airports that were not reached count.
+                if (graph.getTarget(route) >= graph.getGivenCount()
+                        && (bestRoute == -1 || graph.getCost(route) < graph.getCost(bestRoute))) {
+                    bestFrom = id;
+                    bestRoute = route;
                 }
             }
-            //check if there are connections to get to else you don't have to add any.
-           if (reachable.size() > 0) {
-                reachable.sort(Connection.COST_COMPARATOR);
-                connectionsBest.add(reachable.get(0));
+        }
+
+        if (bestRoute == -1) {
+            throw new IllegalArgumentException("no connection leaves the reached airports.");
+        }
+        return graph.getConnection(bestFrom, bestRoute);
+    }
+
+    /**
+     * Moves the airport at the given index of the heap up until its parent is not more
+     * expensive.
+     */
+    private static void siftUp(int[] heap, int[] heapIndex, long[] cost, int index) {
+        int airport = heap[index];
+
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (cost[heap[parent]] <= cost[airport]) {
+                break;
             }
+            heap[index] = heap[parent];
+            heapIndex[heap[index]] = index;
+            index = parent;
         }
+        heap[index] = airport;
+        heapIndex[airport] = index;
+    }
 
-        connectionsBest.sort(Connection.COST_COMPARATOR);
-        return connectionsBest.get(0);
+    /**
+     * Moves the airport at the given index of the heap down until none of its children are
+     * cheaper.
+     */
+    private static void siftDown(int[] heap, int[] heapIndex, long[] cost, int size, int index) {
+        int airport = heap[index];
+
+        while (2 * index + 1 < size) {
+            //find the cheaper child.
+            int child = 2 * index + 1;
+            if (child + 1 < size && cost[heap[child + 1]] < cost[heap[child]]) {
+                child += 1;
+            }
+
+            if (cost[heap[child]] >= cost[airport]) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = airport;
+        heapIndex[airport] = index;
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -101,6 +103,78 @@ public class AirportReducerTest {
 		
 		performTest(testData);
 	}
+	
+	@Test
+	public void testMaximumCost() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		Connection javLas = connect(jav, las, Integer.MAX_VALUE);
+		Connection lasFnj = connect(las, fnj, 1);
+		
+		// A connection is needed no matter how expensive it is
+		assertEquals(new HashSet<>(Arrays.asList(javLas, lasFnj)),
+				AirportReducer.minimalSpanningTree(Arrays.asList(jav, las, fnj)));
+	}
+	
+	@Test
+	public void testAirportsOutsideTheList() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		Connection javLas = connect(jav, las, 5);
+		connect(jav, fnj, 1);
+		connect(las, fnj, 1);
+		
+		// FNJ is not given, so the cheaper way through it does not count
+		assertEquals(Collections.singleton(javLas),
+				AirportReducer.minimalSpanningTree(Arrays.asList(jav, las)));
+		assertEquals(Collections.emptySet(),
+				AirportReducer.minimalSpanningTree(Arrays.asList(jav)));
+	}
+	
+	@Test
+	public void testInvalidInput() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		connect(jav, fnj, 1);
+		connect(las, fnj, 1);
+		
+		assertThrows(IllegalArgumentException.class,
+				() -> AirportReducer.minimalSpanningTree(Collections.emptyList()));
+		// JAV and LAS are only connected through FNJ, which is not given
+		assertThrows(IllegalArgumentException.class,
+				() -> AirportReducer.minimalSpanningTree(Arrays.asList(jav, las)));
+		assertThrows(IllegalArgumentException.class,
+				() -> AirportReducer.minimalSpanningTree(Arrays.asList(jav, las, new Airport("MUC"))));
+	}
+	
+	@Test
+	public void testBestEdge() {
+		Airport jav = new Airport("JAV");
+		Airport las = new Airport("LAS");
+		Airport fnj = new Airport("FNJ");
+		connect(jav, las, 3);
+		Connection javFnj = connect(jav, fnj, 2);
+		Connection lasFnj = connect(las, fnj, 1);
+		
+		// Connections between reached airports don't count
+		assertSame(javFnj, AirportReducer.getBestEdge(Arrays.asList(jav)));
+		assertSame(lasFnj, AirportReducer.getBestEdge(Arrays.asList(jav, fnj)));
+		assertThrows(IllegalArgumentException.class,
+				() -> AirportReducer.getBestEdge(Arrays.asList(jav, las, fnj)));
+	}
+	
+	/**
+	 * Connects the two airports with a new connection of the given cost.
+	 */
+	private static Connection connect(Airport airport1, Airport airport2, int cost) {
+		Connection connection = new Connection(airport1, airport2, cost);
+		airport1.getConnections().add(connection);
+		airport2.getConnections().add(connection);
+		return connection;
+	}
 
 	////////////////////////////////////////////////////////////////////////////////////////////
 	// Running Tests